@@ -0,0 +1,48 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stub of the organization and licensing services for the gateway benchmark.
+ * Answers every request with the same JSON document after a fixed delay, so
+ * the gateways are compared against a backend of known latency.
+ *
+ * Usage: java StubBackend [port] [delayMs] [bodyBytes]
+ */
+public class StubBackend {
+
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+		long delayMs = args.length > 1 ? Long.parseLong(args[1]) : 20;
+		int bodyBytes = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+
+		char[] padding = new char[Math.max(0, bodyBytes - 11)];
+		Arrays.fill(padding, 'x');
+		byte[] body = ("{\"data\":\"" + new String(padding) + "\"}").getBytes(StandardCharsets.UTF_8);
+
+		HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+		server.createContext("/", exchange -> {
+			try {
+				if (delayMs > 0) {
+					Thread.sleep(delayMs);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		// a sleeping thread per in flight request, the backend must never be the bottleneck
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+		System.out.println("Stub backend on port " + port + ", delay " + delayMs + "ms, body " + body.length + " bytes");
+	}
+}
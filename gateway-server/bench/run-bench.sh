@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+#
+# Runs the Zuul server and the gateway server against a local stub backend
+# and compares their throughput and latency percentiles with wrk.
+#
+# Both gateways use their real routes (/api/organization/**) with Eureka
+# turned off: Ribbon gets the stub from organizationservice.ribbon.listOfServers.
+# The response cache and the rate limiter of the Zuul server are turned off
+# so both gateways proxy every request.
+#
+# Usage: ./run-bench.sh
+# Environment: DURATION (30s), CONNECTIONS (200), THREADS (4), DELAY_MS (20),
+# BODY_BYTES (1024), SKIP_BUILD (set to skip the bootJar builds)
+set -euo pipefail
+
+DURATION=${DURATION:-30s}
+CONNECTIONS=${CONNECTIONS:-200}
+THREADS=${THREADS:-4}
+DELAY_MS=${DELAY_MS:-20}
+BODY_BYTES=${BODY_BYTES:-1024}
+STUB_PORT=9090
+
+BENCH_DIR=$(cd "$(dirname "$0")" && pwd)
+ROOT_DIR=$(cd "$BENCH_DIR/../.." && pwd)
+WORK_DIR="$ROOT_DIR/gateway-server/build/bench"
+PIDS=()
+
+command -v wrk >/dev/null || { echo "wrk is required (https://github.com/wg/wrk)"; exit 1; }
+
+cleanup() {
+	for pid in "${PIDS[@]}"; do
+		kill "$pid" 2>/dev/null || true
+	done
+}
+trap cleanup EXIT
+
+wait_for() {
+	for _ in $(seq 1 120); do
+		curl -sf -o /dev/null "$1" && return 0
+		sleep 1
+	done
+	echo "Timed out waiting for $1"
+	exit 1
+}
+
+mkdir -p "$WORK_DIR"
+if [ -z "${SKIP_BUILD:-}" ]; then
+	(cd "$ROOT_DIR/zuul-server" && ./gradlew -q bootJar)
+	(cd "$ROOT_DIR/gateway-server" && ./gradlew -q bootJar)
+fi
+
+javac -d "$WORK_DIR" "$BENCH_DIR/StubBackend.java"
+java -cp "$WORK_DIR" StubBackend "$STUB_PORT" "$DELAY_MS" "$BODY_BYTES" > "$WORK_DIR/stub.log" 2>&1 &
+PIDS+=($!)
+
+COMMON_ARGS=(
+	--spring.cloud.config.enabled=false
+	--eureka.client.enabled=false
+	--ribbon.eureka.enabled=false
+	--organizationservice.ribbon.listOfServers=localhost:$STUB_PORT
+	--logging.level.com.cristian=WARN
+)
+
+run() {
+	local name=$1 url=$2
+	wait_for "$url"
+	echo "== $name: $CONNECTIONS connections, backend delay ${DELAY_MS}ms"
+	# warm up the JIT and the connection pools before measuring
+	wrk -t"$THREADS" -c"$CONNECTIONS" -d10s "$url" > /dev/null
+	wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency "$url" | tee "$WORK_DIR/$name.txt"
+}
+
+java -jar "$ROOT_DIR"/zuul-server/build/libs/zuul-server-*.jar "${COMMON_ARGS[@]}" \
+	--gateway.response-cache.enabled=false --gateway.rate-limit.enabled=false \
+	> "$WORK_DIR/zuul.log" 2>&1 &
+ZUUL_PID=$!
+PIDS+=($ZUUL_PID)
+run zuul "http://localhost:5555/api/organization/v1/organizations/bench"
+kill "$ZUUL_PID"
+wait "$ZUUL_PID" 2>/dev/null || true
+
+java -jar "$ROOT_DIR"/gateway-server/build/libs/gateway-server-*.jar "${COMMON_ARGS[@]}" \
+	> "$WORK_DIR/gateway.log" 2>&1 &
+PIDS+=($!)
+run gateway "http://localhost:5556/api/organization/v1/organizations/bench"
+
+echo "Results in $WORK_DIR"
@@ -0,0 +1,35 @@
+package com.cristian.gatewayserver.filters;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Headers and helpers shared by the global filters of the gateway, the
+ * counterpart of the FilterUtils of the Zuul server.
+ *
+ * Unlike Zuul there is no RequestContext to keep the headers added by a
+ * filter: the request of the exchange is immutable and a filter that adds a
+ * header passes a mutated copy of the exchange down the chain, so the
+ * following filters and the proxied service see the header like any other.
+ */
+public final class FilterUtils {
+
+	public static final String CORRELATION_ID = "tmx-correlation-id";
+	public static final String AUTH_TOKEN = "tmx-auth-token";
+	public static final String USER_ID = "tmx-user-id";
+	public static final String ORG_ID = "tmx-org-id";
+
+	private FilterUtils() {
+	}
+
+	public static String getCorrelationId(ServerWebExchange exchange) {
+		return exchange.getRequest().getHeaders().getFirst(CORRELATION_ID);
+	}
+
+	public static ServerWebExchange setCorrelationId(ServerWebExchange exchange, String correlationId) {
+		ServerHttpRequest request = exchange.getRequest().mutate()
+				.header(CORRELATION_ID, correlationId)
+				.build();
+		return exchange.mutate().request(request).build();
+	}
+}
@@ -0,0 +1,45 @@
+package com.cristian.gatewayserver.filters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Global filter returning the tmx-correlation-id of the request to the
+ * caller in the response headers, the counterpart of the ResponseFilter of
+ * the Zuul server.
+ *
+ * The header is set in a beforeCommit action rather than after the chain
+ * completes: by then the response of the service has already been written
+ * and its headers can no longer be changed. It runs after the TrackingFilter
+ * so it sees the generated correlation id.
+ */
+@Component
+public class ResponseFilter implements GlobalFilter, Ordered {
+	private static final int FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 2;
+	private static final Logger logger = LoggerFactory.getLogger(ResponseFilter.class);
+
+	@Override
+	public int getOrder() {
+		return FILTER_ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		String correlationId = FilterUtils.getCorrelationId(exchange);
+		ServerHttpResponse response = exchange.getResponse();
+		response.beforeCommit(() -> {
+			logger.debug("Adding the correlation id to the outbound headers. {}", correlationId);
+			response.getHeaders().set(FilterUtils.CORRELATION_ID, correlationId);
+			return Mono.empty();
+		});
+		return chain.filter(exchange);
+	}
+}
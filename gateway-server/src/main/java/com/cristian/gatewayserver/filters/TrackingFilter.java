@@ -0,0 +1,49 @@
+package com.cristian.gatewayserver.filters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.cristian.gatewayserver.tracking.CorrelationIdGenerator;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Global filter applied to every routed request, the counterpart of the
+ * TrackingFilter of the Zuul server: when the request has no
+ * tmx-correlation-id header one is generated by the configured
+ * CorrelationIdGenerator and added to the request sent to the service. A
+ * request that already has one is part of a chain of service calls and is
+ * passed on untouched.
+ */
+@Component
+public class TrackingFilter implements GlobalFilter, Ordered {
+	private static final int FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 1;
+	private static final Logger logger = LoggerFactory.getLogger(TrackingFilter.class);
+
+	@Autowired
+	CorrelationIdGenerator correlationIdGenerator;
+
+	@Override
+	public int getOrder() {
+		return FILTER_ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		String correlationId = FilterUtils.getCorrelationId(exchange);
+		if (correlationId != null) {
+			logger.debug("tmx-correlation-id found in tracking filter: {}. ", correlationId);
+			return chain.filter(exchange);
+		}
+
+		correlationId = correlationIdGenerator.generate();
+		logger.debug("tmx-correlation-id generated in tracking filter: {}.", correlationId);
+		return chain.filter(FilterUtils.setCorrelationId(exchange, correlationId));
+	}
+}
@@ -0,0 +1,24 @@
+package com.cristian.gatewayserver.tracking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the correlation id generator with tracking.correlation-id.generator:
+ * ulid (the default) or uuid.
+ */
+@Configuration
+public class CorrelationIdConfig {
+
+	@Value("${tracking.correlation-id.generator:ulid}")
+	private String generator;
+
+	@Bean
+	public CorrelationIdGenerator correlationIdGenerator() {
+		if ("uuid".equalsIgnoreCase(generator)) {
+			return new UuidCorrelationIdGenerator();
+		}
+		return new UlidCorrelationIdGenerator();
+	}
+}
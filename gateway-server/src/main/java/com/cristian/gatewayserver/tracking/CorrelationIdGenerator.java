@@ -0,0 +1,12 @@
+package com.cristian.gatewayserver.tracking;
+
+/**
+ * Generates the tmx-correlation-id the TrackingFilter sets on requests that
+ * arrive without one. Implementations are called for every such request, on
+ * a Netty event loop thread, so they have to be thread safe and must never
+ * block.
+ */
+public interface CorrelationIdGenerator {
+
+	String generate();
+}
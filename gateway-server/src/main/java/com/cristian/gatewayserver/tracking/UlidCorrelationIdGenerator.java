@@ -0,0 +1,42 @@
+package com.cristian.gatewayserver.tracking;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ULID style correlation ids: 26 Crockford base32 characters made of a 48 bit
+ * millisecond timestamp followed by 80 random bits, e.g.
+ * 01DRV3Z5XW8QJ7M2K4N6P9T0AB. The ids sort by creation time, which keeps
+ * them easy to follow in the logs.
+ *
+ * The random bits come from ThreadLocalRandom, so there is no shared state
+ * between event loop threads and nothing to contend on. Nothing identifies the
+ * gateway instance in the id: uniqueness, within an instance and across
+ * instances alike, rests on the 80 random bits, two ids only collide when
+ * they are generated in the same millisecond with the same random bits.
+ */
+public class UlidCorrelationIdGenerator implements CorrelationIdGenerator {
+	private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+	private static final int LENGTH = 26;
+	private static final int TIME_LENGTH = 10;
+
+	@Override
+	public String generate() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long time = System.currentTimeMillis();
+		// 80 random bits, 16 in randomHigh and 64 in randomLow
+		long randomHigh = random.nextInt() & 0xFFFFL;
+		long randomLow = random.nextLong();
+
+		char[] id = new char[LENGTH];
+		for (int i = TIME_LENGTH - 1; i >= 0; i--) {
+			id[i] = ALPHABET[(int) (time & 31)];
+			time >>>= 5;
+		}
+		for (int i = LENGTH - 1; i >= TIME_LENGTH; i--) {
+			id[i] = ALPHABET[(int) (randomLow & 31)];
+			randomLow = (randomLow >>> 5) | (randomHigh << 59);
+			randomHigh >>>= 5;
+		}
+		return new String(id);
+	}
+}
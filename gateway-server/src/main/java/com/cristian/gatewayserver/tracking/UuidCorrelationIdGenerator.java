@@ -0,0 +1,16 @@
+package com.cristian.gatewayserver.tracking;
+
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUIDs. UUID.randomUUID() draws from a single shared
+ * SecureRandom, which synchronizes, so the event loop threads contend on it
+ * at high request rates.
+ */
+public class UuidCorrelationIdGenerator implements CorrelationIdGenerator {
+
+	@Override
+	public String generate() {
+		return UUID.randomUUID().toString();
+	}
+}
@@ -0,0 +1,53 @@
+package com.cristian.gatewayserver.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+class TrackingFilterTest {
+
+	@Test
+	void generatedCorrelationIdIsSentToTheServiceAndReturned() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/licensing/v1"));
+		AtomicReference<String> forwarded = new AtomicReference<>();
+
+		run(exchange, forwarded);
+
+		assertEquals("generated-id", forwarded.get());
+		assertEquals("generated-id", exchange.getResponse().getHeaders().getFirst(FilterUtils.CORRELATION_ID));
+	}
+
+	@Test
+	void existingCorrelationIdIsKept() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/licensing/v1")
+				.header(FilterUtils.CORRELATION_ID, "caller-id"));
+		AtomicReference<String> forwarded = new AtomicReference<>();
+
+		run(exchange, forwarded);
+
+		assertEquals("caller-id", forwarded.get());
+		assertEquals("caller-id", exchange.getResponse().getHeaders().getFirst(FilterUtils.CORRELATION_ID));
+	}
+
+	private void run(ServerWebExchange exchange, AtomicReference<String> forwarded) {
+		TrackingFilter trackingFilter = new TrackingFilter();
+		trackingFilter.correlationIdGenerator = () -> "generated-id";
+		ResponseFilter responseFilter = new ResponseFilter();
+
+		// stands in for the routing filter: records what the service gets and writes the response
+		GatewayFilterChain route = routed -> {
+			forwarded.set(FilterUtils.getCorrelationId(routed));
+			return routed.getResponse().setComplete();
+		};
+		GatewayFilterChain chain = tracked -> responseFilter.filter(tracked, route);
+		trackingFilter.filter(exchange, chain).block();
+	}
+}
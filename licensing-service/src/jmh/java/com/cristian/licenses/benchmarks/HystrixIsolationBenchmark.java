@@ -0,0 +1,106 @@
+package com.cristian.licenses.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cristian.licenses.hystrix.ThreadLocalAwareStrategy;
+import com.netflix.hystrix.Hystrix;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixCommandProperties.ExecutionIsolationStrategy;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolProperties;
+import com.netflix.hystrix.strategy.HystrixPlugins;
+
+/**
+ * Cost of the Hystrix isolation strategy of getLicensesByOrg under
+ * concurrency, with the same command settings as the @HystrixCommand
+ * annotation and the ThreadLocalAwareStrategy registered as in
+ * ThreadLocalConfiguration.
+ *
+ * The protected call simulates a fast local DB query of queryMicros. With
+ * THREAD isolation every call is handed to the licenseByOrgThreadPool and the
+ * UserContext is copied to the pool thread, with SEMAPHORE isolation the call
+ * runs on the caller thread. Run with -prof gc to compare the allocation per
+ * call as well.
+ *
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(16)
+public class HystrixIsolationBenchmark {
+
+	@Param({ "THREAD", "SEMAPHORE" })
+	private String isolation;
+
+	@Param({ "50" })
+	private long queryMicros;
+
+	private HystrixCommand.Setter setter;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		HystrixPlugins.reset();
+		HystrixPlugins.getInstance().registerConcurrencyStrategy(new ThreadLocalAwareStrategy(null));
+
+		setter = HystrixCommand.Setter.withGroupKey(HystrixCommandGroupKey.Factory.asKey("LicenseService"))
+				.andCommandKey(HystrixCommandKey.Factory.asKey("getLicensesByOrg"))
+				.andThreadPoolKey(HystrixThreadPoolKey.Factory.asKey("licenseByOrgThreadPool"))
+				.andCommandPropertiesDefaults(HystrixCommandProperties.Setter()
+						.withExecutionIsolationStrategy(ExecutionIsolationStrategy.valueOf(isolation))
+						.withExecutionIsolationSemaphoreMaxConcurrentRequests(30)
+						.withExecutionTimeoutInMilliseconds(2000)
+						.withCircuitBreakerRequestVolumeThreshold(10)
+						.withCircuitBreakerErrorThresholdPercentage(75)
+						.withCircuitBreakerSleepWindowInMilliseconds(7000)
+						.withMetricsRollingStatisticalWindowInMilliseconds(15000)
+						.withMetricsRollingStatisticalWindowBuckets(5))
+				.andThreadPoolPropertiesDefaults(HystrixThreadPoolProperties.Setter()
+						.withCoreSize(30)
+						.withMaxQueueSize(10));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		Hystrix.reset();
+		HystrixPlugins.reset();
+	}
+
+	@Benchmark
+	public Integer getLicensesByOrg() {
+		return new HystrixCommand<Integer>(setter) {
+			@Override
+			protected Integer run() {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(queryMicros));
+				return 1;
+			}
+
+			@Override
+			protected Integer getFallback() {
+				return 0;
+			}
+		}.execute();
+	}
+}
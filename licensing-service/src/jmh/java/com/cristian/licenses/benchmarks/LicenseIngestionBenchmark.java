@@ -0,0 +1,123 @@
+package com.cristian.licenses.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cristian.licenses.model.License;
+import com.cristian.licenses.repository.LicenseJdbcRepository;
+
+/**
+ * Compares the single license path with the bulk ingestion path on an
+ * embedded H2 database.
+ *
+ * singleItemPath reproduces what POST v1/organizations/{id}/licenses/ does for
+ * every license: LicenseService.saveLicense assigns a UUID and the JPA save of
+ * an entity with an assigned id runs a SELECT before the INSERT, each license
+ * in its own transaction. bulkPath writes the same licenses through
+ * LicenseJdbcRepository.insertBatch, batchSize rows per JDBC batch and
+ * transaction, as LicenseBatchService does.
+ *
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LicenseIngestionBenchmark {
+	private static final String ORGANIZATION_ID = "442adb6e-fa58-47f3-9ca2-ed1fecdfe86c";
+
+	@Param({ "1000" })
+	private int licenses;
+
+	@Param({ "100", "500" })
+	private int batchSize;
+
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+	private LicenseJdbcRepository licenseJdbcRepository;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dataSource = new SingleConnectionDataSource("jdbc:h2:mem:ingestion;MODE=MySQL;DB_CLOSE_DELAY=-1", true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		licenseJdbcRepository = new LicenseJdbcRepository(jdbcTemplate);
+
+		jdbcTemplate.execute("DROP TABLE IF EXISTS licenses");
+		jdbcTemplate.execute("CREATE TABLE licenses (license_id VARCHAR(100) PRIMARY KEY NOT NULL, "
+				+ "organization_id TEXT NOT NULL, license_type TEXT NOT NULL, product_name TEXT NOT NULL, "
+				+ "license_max INT NOT NULL, license_allocated INT, comment VARCHAR(100))");
+	}
+
+	@Setup(Level.Iteration)
+	public void truncate() {
+		jdbcTemplate.execute("TRUNCATE TABLE licenses");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dataSource.destroy();
+	}
+
+	@Benchmark
+	public int singleItemPath() {
+		int written = 0;
+		for (License license : newLicenses()) {
+			written += transactionTemplate.execute(status -> {
+				jdbcTemplate.queryForList("SELECT license_id FROM licenses WHERE license_id = ?",
+						String.class, license.getLicenseId());
+				return jdbcTemplate.update("INSERT INTO licenses (license_id, organization_id, license_type, "
+						+ "product_name, license_max, license_allocated, comment) VALUES (?, ?, ?, ?, ?, ?, ?)",
+						license.getLicenseId(), license.getOrganizationId(), license.getLicenseType(),
+						license.getProductName(), license.getLicenseMax(), license.getLicenseAllocated(),
+						license.getComment());
+			});
+		}
+		return written;
+	}
+
+	@Benchmark
+	public int bulkPath() {
+		List<License> all = newLicenses();
+		int written = 0;
+		for (int from = 0; from < all.size(); from += batchSize) {
+			List<License> chunk = all.subList(from, Math.min(from + batchSize, all.size()));
+			int[] counts = transactionTemplate.execute(status -> licenseJdbcRepository.insertBatch(chunk));
+			written += counts.length;
+		}
+		return written;
+	}
+
+	private List<License> newLicenses() {
+		List<License> result = new ArrayList<>(licenses);
+		for (int i = 0; i < licenses; i++) {
+			result.add(new License().withId(UUID.randomUUID().toString()).withOrganizationId(ORGANIZATION_ID)
+					.withLicenseType("user").withProductName("CustomerPro").withLicenseMax(100)
+					.withLicenseAllocated(5));
+		}
+		return result;
+	}
+}
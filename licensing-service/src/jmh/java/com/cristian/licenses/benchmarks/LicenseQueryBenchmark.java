@@ -0,0 +1,102 @@
+package com.cristian.licenses.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Query latency of the two hot license queries against a large licenses
+ * table, before and after the V2 migration (bounded organization_id and the
+ * (organization_id, license_id) index).
+ *
+ * The schema is created by running the real Flyway migrations on an embedded
+ * H2 database in MySQL mode: schemaVersion=1 stops after the original table,
+ * schemaVersion=2 applies the index migration. The table is then filled with
+ * rows licenses spread over rows / licensesPerOrganization organizations.
+ *
+ * The queries are the ones Hibernate generates for
+ * LicenseRepository.findByOrganizationId and findByOrganizationIdAndLicenseId.
+ *
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LicenseQueryBenchmark {
+	private static final String FIND_BY_ORGANIZATION = "SELECT license_id, organization_id, license_type, "
+			+ "product_name, license_max, license_allocated, comment FROM licenses WHERE organization_id = ?";
+	private static final String FIND_BY_ORGANIZATION_AND_LICENSE = FIND_BY_ORGANIZATION + " AND license_id = ?";
+
+	@Param({ "1000000" })
+	private int rows;
+
+	@Param({ "100" })
+	private int licensesPerOrganization;
+
+	@Param({ "1", "2" })
+	private String schemaVersion;
+
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+	private int organizations;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dataSource = new SingleConnectionDataSource(
+				"jdbc:h2:mem:licenses-" + schemaVersion + ";MODE=MySQL;DB_CLOSE_DELAY=-1", true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		organizations = rows / licensesPerOrganization;
+
+		Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target("1").load().migrate();
+		jdbcTemplate.execute("DELETE FROM licenses");
+		jdbcTemplate.update("INSERT INTO licenses (license_id, organization_id, license_type, product_name, "
+				+ "license_max, license_allocated) SELECT 'lic-' || LPAD(X, 10, '0'), "
+				+ "'org-' || MOD(X, ?), 'user', 'CustomerPro', 100, 5 FROM SYSTEM_RANGE(1, ?)", organizations, rows);
+
+		Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target(schemaVersion).load()
+				.migrate();
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+		dataSource.destroy();
+	}
+
+	@Benchmark
+	public List<?> findByOrganizationId() {
+		return jdbcTemplate.queryForList(FIND_BY_ORGANIZATION, randomOrganization());
+	}
+
+	@Benchmark
+	public List<?> findByOrganizationIdAndLicenseId() {
+		int license = ThreadLocalRandom.current().nextInt(1, rows + 1);
+		return jdbcTemplate.queryForList(FIND_BY_ORGANIZATION_AND_LICENSE, "org-" + (license % organizations),
+				String.format("lic-%010d", license));
+	}
+
+	private String randomOrganization() {
+		return "org-" + ThreadLocalRandom.current().nextInt(organizations);
+	}
+}
@@ -0,0 +1,102 @@
+package com.cristian.licenses.benchmarks;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cristian.licenses.hystrix.DelegatingUserContextCallable;
+import com.cristian.licenses.utils.UserContext;
+import com.cristian.licenses.utils.UserContextHolder;
+import com.cristian.licenses.utils.UserContextPropagation;
+
+/**
+ * Per hop cost of the UserContext propagation. The tasks are run on the
+ * benchmark thread right after being wrapped, so the numbers only contain
+ * the capture, set and restore of the context, not a thread hand-off.
+ *
+ * Run with -prof gc to see the bytes allocated per operation
+ * (gc.alloc.rate.norm).
+ *
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserContextPropagationBenchmark {
+
+	@Param({ "true", "false" })
+	private boolean withContext;
+
+	private String correlationId;
+	private String authToken;
+	private String userId;
+	private String orgId;
+
+	private final Runnable runnable = () -> {
+	};
+	private final Callable<String> callable = () -> UserContextHolder.getContext().getCorrelationId();
+	private final Supplier<String> supplier = () -> UserContextHolder.getContext().getCorrelationId();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		correlationId = "f1b6b3c8-4f3f-4c5e-9a3e-1f6c1c0e8a2d";
+		authToken = "Bearer eyJhbGciOiJIUzI1NiJ9";
+		userId = "user-1";
+		orgId = "442adb6e-fa58-47f3-9ca2-ed1fecdfe86c";
+
+		if (withContext) {
+			UserContextHolder.setContext(new UserContext(correlationId, authToken, userId, orgId));
+		} else {
+			UserContextHolder.clear();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		UserContextHolder.clear();
+	}
+
+	/** What the UserContextFilter builds once per incoming request. */
+	@Benchmark
+	public UserContext snapshot() {
+		return new UserContext(correlationId, authToken, userId, orgId);
+	}
+
+	/** A read of the context, e.g. for the correlation id of a log line. */
+	@Benchmark
+	public String lookup() {
+		return UserContextHolder.getContext().getCorrelationId();
+	}
+
+	@Benchmark
+	public void executorHop() {
+		UserContextPropagation.wrap(runnable).run();
+	}
+
+	@Benchmark
+	public String completableFutureHop() {
+		return UserContextPropagation.wrap(supplier).get();
+	}
+
+	@Benchmark
+	public String hystrixHop() throws Exception {
+		return DelegatingUserContextCallable.create(callable, UserContextHolder.getContext()).call();
+	}
+}
@@ -3,6 +3,7 @@ package com.cristian.licenses;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.circuitbreaker.EnableCircuitBreaker;
@@ -11,6 +12,8 @@ import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 import com.cristian.licenses.utils.UserContextInterceptor;
@@ -26,6 +29,7 @@ import com.cristian.licenses.utils.UserContextInterceptor;
 @EnableFeignClients 
 @EnableCircuitBreaker // ells Spring Cloud you’re going to use Hystrix for your service
 @RefreshScope
+@EnableScheduling // background refresh of the discovered service instances
 public class LicensingServiceApplication {
 
 	public static void main(String[] args) {
@@ -42,11 +46,14 @@ public class LicensingServiceApplication {
 	 * the @EnableDiscoveryClient
 	 * and @EnableFeignClients application aren’t needed 
 	 * when using the Ribbon backed RestTemplate
+	 * 
+	 * The requests go through the shared, pooled HttpClient defined 
+	 * in HttpClientConfig instead of the default HttpURLConnection
 	 */
 	@LoadBalanced
     @Bean
-    public RestTemplate getRestTemplate(){
-        RestTemplate template = new RestTemplate();
+    public RestTemplate getRestTemplate(CloseableHttpClient httpClient){
+        RestTemplate template = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
         List interceptors = template.getInterceptors();
         if (interceptors==null){
             template.setInterceptors(Collections.singletonList(new UserContextInterceptor()));
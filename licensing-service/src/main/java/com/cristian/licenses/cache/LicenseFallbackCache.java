@@ -0,0 +1,153 @@
+package com.cristian.licenses.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.cristian.licenses.model.License;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Last known good license list of every organization, used by the
+ * getLicensesByOrg fallback. Each successful query replaces the entry of the
+ * organization; when the query fails, times out or is rejected, the fallback
+ * serves a copy of the last list with every license marked as stale instead
+ * of an empty result.
+ *
+ * The organizations served stale are remembered so they can be refreshed in
+ * the background once the database answers again (see
+ * LicenseService.refreshStaleLicenses). Entries are evicted once the cache
+ * reaches its maximum size and expire a fixed time after they were written,
+ * so very old data is never served. Every write of a license evicts the entry
+ * of its organization, so the fallback never serves a list that misses a
+ * license just created or still has one just deleted. Hit and miss counts are
+ * published under the "licensesFallback" cache name.
+ */
+@Component
+public class LicenseFallbackCache {
+	public static final String CACHE_NAME = "licensesFallback";
+
+	private static final Logger logger = LoggerFactory.getLogger(LicenseFallbackCache.class);
+
+	@Value("${licensing.licenses.fallback-cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${licensing.licenses.fallback-cache.max-size:1000}")
+	private long maxSize;
+
+	@Value("${licensing.licenses.fallback-cache.ttl-seconds:3600}")
+	private long ttlSeconds;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Cache<String, List<License>> cache;
+
+	private final Set<String> servedStale = ConcurrentHashMap.newKeySet();
+
+	@PostConstruct
+	public void init() {
+		cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+				.recordStats()
+				.build();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+		logger.debug("License fallback cache enabled: {}, max size: {}, ttl: {}s", enabled, maxSize, ttlSeconds);
+	}
+
+	public void put(String organizationId, List<License> licenses) {
+		if (enabled) {
+			cache.put(organizationId, Collections.unmodifiableList(new ArrayList<>(licenses)));
+			servedStale.remove(organizationId);
+		}
+	}
+
+	/**
+	 * Forgets the licenses of the organization, to be called once a license of
+	 * it was written.
+	 */
+	public void evict(String organizationId) {
+		if (enabled) {
+			cache.invalidate(organizationId);
+		}
+	}
+
+	/**
+	 * Forgets the licenses of every organization, for writes whose organization
+	 * is not known.
+	 */
+	public void evictAll() {
+		if (enabled) {
+			cache.invalidateAll();
+		}
+	}
+
+	/**
+	 * Returns copies of the last known good licenses of the organization marked
+	 * as stale, or null when there is none.
+	 */
+	public List<License> getStale(String organizationId) {
+		if (!enabled) {
+			return null;
+		}
+
+		List<License> licenses = cache.getIfPresent(organizationId);
+		if (licenses == null) {
+			return null;
+		}
+
+		servedStale.add(organizationId);
+		List<License> stale = new ArrayList<>(licenses.size());
+		for (License license : licenses) {
+			stale.add(staleCopy(license));
+		}
+		return stale;
+	}
+
+	/**
+	 * Returns and forgets the organizations served stale since the last call.
+	 */
+	public Set<String> drainServedStale() {
+		Set<String> drained = ConcurrentHashMap.newKeySet();
+		for (String organizationId : servedStale) {
+			if (servedStale.remove(organizationId)) {
+				drained.add(organizationId);
+			}
+		}
+		return drained;
+	}
+
+	public void markServedStale(String organizationId) {
+		servedStale.add(organizationId);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	private License staleCopy(License license) {
+		return new License().withId(license.getLicenseId()).withOrganizationId(license.getOrganizationId())
+				.withProductName(license.getProductName()).withLicenseType(license.getLicenseType())
+				.withLicenseMax(license.getLicenseMax()).withLicenseAllocated(license.getLicenseAllocated())
+				.withComment(license.getComment()).withOrganizationName(license.getOrganizationName())
+				.withContactName(license.getContactName()).withContactPhone(license.getContactPhone())
+				.withContactEmail(license.getContactEmail()).withStale(true);
+	}
+}
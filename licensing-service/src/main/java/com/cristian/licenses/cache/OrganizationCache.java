@@ -0,0 +1,194 @@
+package com.cristian.licenses.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.cristian.licenses.model.Organization;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded in-process cache that sits in front of the organization clients
+ * (Feign, Ribbon RestTemplate and DiscoveryClient). Organization names and
+ * contacts almost never change, so there is no need to call the
+ * organizationservice on every license lookup.
+ *
+ * Entries are evicted once the cache reaches its maximum size and expire a
+ * fixed time after they were written. Hit, miss and eviction counts are
+ * published to the actuator metrics endpoint under the "organizations" cache
+ * name, and entries can be invalidated through the organizationcache actuator
+ * endpoint.
+ *
+ * An expired entry is kept for revalidate-ttl-seconds more: the next lookup
+ * hands it to the loader, which sends a conditional GET with its ETag and gets
+ * the same copy back on a 304. The outcomes are counted by
+ * organization.cache.revalidations (outcome=not_modified or modified). The
+ * cache statistics count a lookup of an expired entry as a hit.
+ */
+@Component
+public class OrganizationCache {
+	public static final String CACHE_NAME = "organizations";
+
+	private static final Logger logger = LoggerFactory.getLogger(OrganizationCache.class);
+
+	@Value("${organization.cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${organization.cache.max-size:1000}")
+	private long maxSize;
+
+	@Value("${organization.cache.ttl-seconds:300}")
+	private long ttlSeconds;
+
+	@Value("${organization.cache.revalidate-ttl-seconds:3600}")
+	private long revalidateTtlSeconds;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Cache<String, Entry> cache;
+	private Counter notModified;
+	private Counter modified;
+
+	@PostConstruct
+	public void init() {
+		cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttlSeconds + revalidateTtlSeconds, TimeUnit.SECONDS)
+				.recordStats()
+				.build();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+		notModified = Counter.builder("organization.cache.revalidations").tag("outcome", "not_modified")
+				.description("Expired organizations the organizationservice confirmed unchanged")
+				.register(meterRegistry);
+		modified = Counter.builder("organization.cache.revalidations").tag("outcome", "modified")
+				.description("Expired organizations the organizationservice sent again")
+				.register(meterRegistry);
+		logger.debug("Organization cache enabled: {}, max size: {}, ttl: {}s, revalidate ttl: {}s", enabled, maxSize,
+				ttlSeconds, revalidateTtlSeconds);
+	}
+
+	/**
+	 * Returns the cached organization or calls the loader when there is no live
+	 * entry. The loader gets the expired copy of the organization, or null, to
+	 * revalidate it and returns that same copy when it is still current. A null
+	 * result from the loader is not cached.
+	 *
+	 * The loader runs outside of the cache so concurrent misses for the same id
+	 * reach it; collapsing those calls is left to the caller (see SingleFlight).
+	 */
+	public Organization get(String organizationId, BiFunction<String, Organization, Organization> loader) {
+		if (!enabled) {
+			return loader.apply(organizationId, null);
+		}
+
+		Entry entry = cache.getIfPresent(organizationId);
+		if (entry != null && entry.isFresh()) {
+			return entry.organization;
+		}
+
+		Organization expired = entry == null ? null : entry.organization;
+		Organization organization = loader.apply(organizationId, expired);
+		if (expired != null) {
+			(organization == expired ? notModified : modified).increment();
+		}
+		if (organization != null) {
+			cache.put(organizationId, new Entry(organization, ttlNanos()));
+		}
+		return organization;
+	}
+
+	/**
+	 * Returns the cached organizations for the given ids. The ids without a live
+	 * entry are handed to the loader in a single call so they can be fetched in
+	 * one round trip.
+	 */
+	public Map<String, Organization> getAll(Set<String> organizationIds,
+			Function<Set<String>, Map<String, Organization>> loader) {
+		if (!enabled) {
+			return loader.apply(organizationIds);
+		}
+
+		Map<String, Organization> organizations = new HashMap<>();
+		Set<String> missingIds = new HashSet<>(organizationIds);
+		for (Map.Entry<String, Entry> cached : cache.getAllPresent(organizationIds).entrySet()) {
+			if (cached.getValue().isFresh()) {
+				organizations.put(cached.getKey(), cached.getValue().organization);
+				missingIds.remove(cached.getKey());
+			}
+		}
+
+		if (!missingIds.isEmpty()) {
+			Map<String, Organization> loaded = loader.apply(missingIds);
+			long ttlNanos = ttlNanos();
+			loaded.forEach((id, organization) -> cache.put(id, new Entry(organization, ttlNanos)));
+			organizations.putAll(loaded);
+		}
+		return organizations;
+	}
+
+	public void invalidate(String organizationId) {
+		cache.invalidate(organizationId);
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public long size() {
+		return cache.estimatedSize();
+	}
+
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	public long notModifiedCount() {
+		return (long) notModified.count();
+	}
+
+	public long modifiedCount() {
+		return (long) modified.count();
+	}
+
+	private long ttlNanos() {
+		return TimeUnit.SECONDS.toNanos(ttlSeconds);
+	}
+
+	private static final class Entry {
+		final Organization organization;
+		final long expiresAtNanos;
+
+		Entry(Organization organization, long ttlNanos) {
+			this.organization = organization;
+			this.expiresAtNanos = System.nanoTime() + ttlNanos;
+		}
+
+		boolean isFresh() {
+			return System.nanoTime() - expiresAtNanos < 0;
+		}
+	}
+}
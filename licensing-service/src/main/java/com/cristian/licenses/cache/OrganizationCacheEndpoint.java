@@ -0,0 +1,55 @@
+package com.cristian.licenses.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Actuator endpoint used to inspect and invalidate the organization cache.
+ *
+ * GET    /actuator/organizationcache                   cache statistics
+ * DELETE /actuator/organizationcache                   invalidate every entry
+ * DELETE /actuator/organizationcache/{organizationId}  invalidate a single entry
+ */
+@Component
+@Endpoint(id = "organizationcache")
+public class OrganizationCacheEndpoint {
+
+	@Autowired
+	private OrganizationCache organizationCache;
+
+	@ReadOperation
+	public Map<String, Object> stats() {
+		CacheStats stats = organizationCache.stats();
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("enabled", organizationCache.isEnabled());
+		result.put("size", organizationCache.size());
+		result.put("hitCount", stats.hitCount());
+		result.put("missCount", stats.missCount());
+		result.put("hitRate", stats.hitRate());
+		result.put("evictionCount", stats.evictionCount());
+		result.put("loadFailureCount", stats.loadFailureCount());
+		result.put("revalidatedNotModifiedCount", organizationCache.notModifiedCount());
+		result.put("revalidatedModifiedCount", organizationCache.modifiedCount());
+		return result;
+	}
+
+	@DeleteOperation
+	public void invalidateAll() {
+		organizationCache.invalidateAll();
+	}
+
+	@DeleteOperation
+	public void invalidate(@Selector String organizationId) {
+		organizationCache.invalidate(organizationId);
+	}
+}
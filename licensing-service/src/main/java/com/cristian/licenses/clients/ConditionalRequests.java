@@ -0,0 +1,49 @@
+package com.cristian.licenses.clients;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.cristian.licenses.model.Organization;
+
+/**
+ * Conditional GET of an organization the caller already holds a copy of:
+ * the ETag of the copy is sent as If-None-Match and a 304 from the
+ * organizationservice resolves to the copy itself, so nothing but the
+ * headers is transferred when the organization didn't change.
+ */
+public final class ConditionalRequests {
+
+	private ConditionalRequests() {
+	}
+
+	public static String ifNoneMatch(Organization cached) {
+		return cached == null ? null : cached.getEtag();
+	}
+
+	public static HttpEntity<Void> request(Organization cached) {
+		String etag = ifNoneMatch(cached);
+		if (etag == null) {
+			return null;
+		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(etag);
+		return new HttpEntity<>(headers);
+	}
+
+	/**
+	 * Returns the cached copy on a 304, otherwise the body with the ETag of
+	 * the response.
+	 */
+	public static Organization resolve(ResponseEntity<Organization> response, Organization cached) {
+		if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+			return cached;
+		}
+		Organization organization = response.getBody();
+		if (organization != null) {
+			organization.setEtag(response.getHeaders().getETag());
+		}
+		return organization;
+	}
+}
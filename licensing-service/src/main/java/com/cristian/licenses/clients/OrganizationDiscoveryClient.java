@@ -1,16 +1,25 @@
 package com.cristian.licenses.clients;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
+import javax.annotation.PostConstruct;
+
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
 import com.cristian.licenses.model.Organization;
+import com.cristian.licenses.utils.UserContextInterceptor;
 
 /**
  * 
@@ -23,26 +32,71 @@ import com.cristian.licenses.model.Organization;
  * Client directly when your service needs to query Ribbon 
  * to understand what services and service instances 
  * are registered with it
+ * 
+ * The RestTemplate is built once on top of the shared, pooled HttpClient so
+ * connections are kept alive between calls. The calls are spread across all
+ * the organizationservice instances by a ServiceInstanceBalancer, whose
+ * instance list is refreshed in the background.
  *       
  */
 @Component
 public class OrganizationDiscoveryClient {
+	private static final String SERVICE_ID = "organizationservice";
 
 	@Autowired
 	private DiscoveryClient discoveryClient;
 
+	@Autowired
+	private CloseableHttpClient httpClient;
+
+	@Value("${organization.discovery.strategy:ROUND_ROBIN}")
+	private ServiceInstanceBalancer.Strategy strategy;
+
+	private RestTemplate restTemplate;
+
+	private ServiceInstanceBalancer balancer;
+
+	@PostConstruct
+	public void init() {
+		restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+		restTemplate.getInterceptors().add(new UserContextInterceptor());
+
+		balancer = new ServiceInstanceBalancer(SERVICE_ID, discoveryClient, strategy);
+	}
+
+	@Scheduled(fixedDelayString = "${organization.discovery.refresh-interval-ms:30000}")
+	public void refreshInstances() {
+		balancer.refresh();
+	}
+
 	public Organization getOrganization(String organizationId) {
-		RestTemplate restTemplate = new RestTemplate();
-		List<ServiceInstance> instances = discoveryClient.getInstances("organizationservice");
+		return getOrganization(organizationId, null);
+	}
+
+	/**
+	 * Conditional GET when a cached copy is given, see ConditionalRequests.
+	 */
+	public Organization getOrganization(String organizationId, Organization cached) {
+		return balancer.execute(instance -> {
+			String serviceUri = String.format("%s/v1/organizations/{organizationId}", instance.getUri().toString());
+
+			ResponseEntity<Organization> restExchange = restTemplate.exchange(serviceUri, HttpMethod.GET,
+					ConditionalRequests.request(cached), Organization.class, organizationId);
+
+			return ConditionalRequests.resolve(restExchange, cached);
+		});
+	}
+
+	public List<Organization> getOrganizations(Set<String> organizationIds) {
+		List<Organization> organizations = balancer.execute(instance -> {
+			String serviceUri = String.format("%s/v1/organizations/?ids={ids}", instance.getUri().toString());
 
-		if (instances.size() == 0)
-			return null;
-		String serviceUri = String.format("%s/v1/organizations/%s", instances.get(0).getUri().toString(),
-				organizationId);
+			ResponseEntity<List<Organization>> restExchange = restTemplate.exchange(serviceUri, HttpMethod.GET, null,
+					new ParameterizedTypeReference<List<Organization>>() {}, String.join(",", organizationIds));
 
-		ResponseEntity<Organization> restExchange = restTemplate.exchange(serviceUri, HttpMethod.GET, null,
-				Organization.class, organizationId);
+			return restExchange.getBody();
+		});
 
-		return restExchange.getBody();
+		return organizations == null ? Collections.emptyList() : organizations;
 	}
 }
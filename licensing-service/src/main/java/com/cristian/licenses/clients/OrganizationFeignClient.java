@@ -1,9 +1,16 @@
 package com.cristian.licenses.clients;
 
+import java.util.List;
+import java.util.Set;
+
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.cristian.licenses.model.Organization;
 /**
@@ -21,9 +28,20 @@ import com.cristian.licenses.model.Organization;
  *	vice other than an interface definition.
  *	To enable the Feign client for use in your licensing service, you need to add a new
  *	annotation, @EnableFeignClients
+ *
+ *	getOrganizationIfNoneMatch is the conditional GET of an organization; Feign
+ *	treats the 304 as an error, so it surfaces as a FeignException with status
+ *	304 (see OrganizationService).
  */
 @FeignClient("organizationservice")
 public interface OrganizationFeignClient {
 	@RequestMapping(method = RequestMethod.GET, value = "/v1/organizations/{organizationId}", consumes = "application/json")
 	Organization getOrganization(@PathVariable("organizationId") String organizationId);
+
+	@RequestMapping(method = RequestMethod.GET, value = "/v1/organizations/{organizationId}", consumes = "application/json")
+	ResponseEntity<Organization> getOrganizationIfNoneMatch(@PathVariable("organizationId") String organizationId,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+
+	@RequestMapping(method = RequestMethod.GET, value = "/v1/organizations/", consumes = "application/json")
+	List<Organization> getOrganizations(@RequestParam("ids") Set<String> organizationIds);
 }
@@ -1,8 +1,13 @@
 package com.cristian.licenses.clients;
 
+import java.util.List;
+import java.util.Set;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
@@ -25,18 +30,72 @@ import com.cristian.licenses.utils.UserContextHolder;
  */
 @Component
 public class OrganizationRestTemplateClient {
+    /**
+     * DIRECT resolves organizationservice through Eureka/Ribbon and calls it
+     * without going through the gateway, which saves a network hop and the Zuul
+     * filter work on the hot path. GATEWAY sends the call through zuulservice
+     * for the calls that need the edge filters. Both modes send the
+     * UserContextInterceptor headers.
+     */
+    public enum RouteMode {
+        DIRECT("http://organizationservice"),
+        GATEWAY("http://zuulservice/api/organization");
+
+        private final String baseUrl;
+
+        RouteMode(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+    }
+
     @Autowired
     RestTemplate restTemplate;
 
+    @Value("${organization.rest.route-mode:DIRECT}")
+    private RouteMode routeMode;
+
     private static final Logger logger = LoggerFactory.getLogger(OrganizationRestTemplateClient.class);
 
     public Organization getOrganization(String organizationId){
+        return getOrganization(organizationId, null, routeMode);
+    }
+
+    /**
+     * Conditional GET when a cached copy is given, see ConditionalRequests.
+     */
+    public Organization getOrganization(String organizationId, Organization cached){
+        return getOrganization(organizationId, cached, routeMode);
+    }
+
+    public Organization getOrganization(String organizationId, RouteMode mode){
+        return getOrganization(organizationId, null, mode);
+    }
+
+    public Organization getOrganization(String organizationId, Organization cached, RouteMode mode){
         logger.debug(">>> In Licensing Service.getOrganization: {}. Thread Id: {}", UserContextHolder.getContext().getCorrelationId(), Thread.currentThread().getId());
         ResponseEntity<Organization> restExchange =
                 restTemplate.exchange(
-                        "http://zuulservice/api/organization/v1/organizations/{organizationId}",
+                        mode.getBaseUrl() + "/v1/organizations/{organizationId}",
+                        HttpMethod.GET,
+                        ConditionalRequests.request(cached), Organization.class, organizationId);
+        return ConditionalRequests.resolve(restExchange, cached);
+    }
+
+    public List<Organization> getOrganizations(Set<String> organizationIds){
+        return getOrganizations(organizationIds, routeMode);
+    }
+
+    public List<Organization> getOrganizations(Set<String> organizationIds, RouteMode mode){
+        logger.debug(">>> In Licensing Service.getOrganizations: {}. Thread Id: {}", UserContextHolder.getContext().getCorrelationId(), Thread.currentThread().getId());
+        ResponseEntity<List<Organization>> restExchange =
+                restTemplate.exchange(
+                        mode.getBaseUrl() + "/v1/organizations/?ids={ids}",
                         HttpMethod.GET,
-                        null, Organization.class, organizationId);
+                        null, new ParameterizedTypeReference<List<Organization>>() {}, String.join(",", organizationIds));
         return restExchange.getBody();
     }
 }
@@ -0,0 +1,107 @@
+package com.cristian.licenses.clients;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+/**
+ * Spreads the calls to a service across all of its instances registered in
+ * the DiscoveryClient.
+ *
+ * The instance list is cached and only refreshed when refresh() is called,
+ * so the DiscoveryClient isn't queried on every call. Two selection
+ * strategies are supported: ROUND_ROBIN cycles through the instances and
+ * LEAST_OUTSTANDING picks the instance with the fewest calls in flight.
+ */
+public class ServiceInstanceBalancer {
+	private static final Logger logger = LoggerFactory.getLogger(ServiceInstanceBalancer.class);
+
+	public enum Strategy {
+		ROUND_ROBIN, LEAST_OUTSTANDING
+	}
+
+	private final String serviceId;
+	private final DiscoveryClient discoveryClient;
+	private final Strategy strategy;
+
+	private final AtomicInteger position = new AtomicInteger();
+	private final ConcurrentMap<URI, AtomicInteger> outstanding = new ConcurrentHashMap<>();
+	private volatile List<ServiceInstance> instances;
+
+	public ServiceInstanceBalancer(String serviceId, DiscoveryClient discoveryClient, Strategy strategy) {
+		this.serviceId = serviceId;
+		this.discoveryClient = discoveryClient;
+		this.strategy = strategy;
+	}
+
+	public void refresh() {
+		List<ServiceInstance> discovered = discoveryClient.getInstances(serviceId);
+		instances = discovered == null ? Collections.emptyList() : discovered;
+
+		Set<URI> live = instances.stream().map(ServiceInstance::getUri).collect(Collectors.toSet());
+		outstanding.keySet().removeIf(uri -> !live.contains(uri));
+		logger.debug("Refreshed the {} instances: {} available", serviceId, instances.size());
+	}
+
+	/**
+	 * Runs the call against the selected instance, keeping track of the calls
+	 * in flight per instance. Returns null when no instance is available.
+	 */
+	public <T> T execute(Function<ServiceInstance, T> call) {
+		ServiceInstance instance = choose();
+		if (instance == null) {
+			return null;
+		}
+
+		AtomicInteger inFlight = outstanding.computeIfAbsent(instance.getUri(), uri -> new AtomicInteger());
+		inFlight.incrementAndGet();
+		try {
+			return call.apply(instance);
+		} finally {
+			inFlight.decrementAndGet();
+		}
+	}
+
+	public ServiceInstance choose() {
+		List<ServiceInstance> current = instances;
+		if (current == null) {
+			refresh();
+			current = instances;
+		}
+
+		int size = current.size();
+		if (size == 0) {
+			return null;
+		}
+
+		int start = Math.floorMod(position.getAndIncrement(), size);
+		if (strategy == Strategy.ROUND_ROBIN) {
+			return current.get(start);
+		}
+
+		// least outstanding, starting at the round robin position to break ties
+		ServiceInstance selected = null;
+		int fewest = Integer.MAX_VALUE;
+		for (int i = 0; i < size; i++) {
+			ServiceInstance candidate = current.get((start + i) % size);
+			AtomicInteger inFlight = outstanding.get(candidate.getUri());
+			int count = inFlight == null ? 0 : inFlight.get();
+			if (count < fewest) {
+				fewest = count;
+				selected = candidate;
+			}
+		}
+		return selected;
+	}
+}
@@ -0,0 +1,43 @@
+package com.cristian.licenses.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.cristian.licenses.utils.UserContextPropagation;
+
+/**
+ * Executors used by the asynchronous code paths of the licensing service.
+ *
+ * The organization lookup executor is bounded on both threads and queue size.
+ * When it is saturated the submission is rejected and the caller falls back,
+ * the same way a full Hystrix thread pool would. Every task runs with the
+ * UserContext of the thread that submitted it.
+ */
+@Configuration
+public class AsyncConfig {
+
+	@Value("${licensing.get-license.async.core-size:10}")
+	private int coreSize;
+
+	@Value("${licensing.get-license.async.max-size:30}")
+	private int maxSize;
+
+	@Value("${licensing.get-license.async.queue-size:10}")
+	private int queueSize;
+
+	@Bean
+	public ThreadPoolTaskExecutor organizationLookupExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("org-lookup-");
+		executor.setCorePoolSize(coreSize);
+		executor.setMaxPoolSize(maxSize);
+		executor.setQueueCapacity(queueSize);
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+		executor.setTaskDecorator(UserContextPropagation::wrap);
+		return executor;
+	}
+}
@@ -0,0 +1,140 @@
+package com.cristian.licenses.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.netflix.concurrency.limits.Limit;
+import com.netflix.concurrency.limits.limit.AIMDLimit;
+import com.netflix.concurrency.limits.limit.Gradient2Limit;
+
+/**
+ * Settings of the adaptive concurrency limit in front of the license queries.
+ *
+ * GRADIENT2 compares the short term latency with the long term latency and
+ * grows the limit while they are close, shrinking it as soon as the calls
+ * queue up. AIMD adds one to the limit on every successful call and
+ * multiplies it by backoffRatio when a call is dropped or takes longer than
+ * timeoutMs. Both stay between minLimit and maxLimit.
+ */
+@Component
+@ConfigurationProperties(prefix = "licensing.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+	public enum Algorithm {
+		GRADIENT2, AIMD
+	}
+
+	private boolean enabled = true;
+	private Algorithm algorithm = Algorithm.GRADIENT2;
+	private int initialLimit = 20;
+	private int minLimit = 5;
+	private int maxLimit = 100;
+	private double rttTolerance = 1.5;
+	private int queueSize = 4;
+	private double smoothing = 0.2;
+	private double backoffRatio = 0.9;
+	private long timeoutMs = 1000;
+
+	public Limit newLimit() {
+		if (algorithm == Algorithm.AIMD) {
+			return AIMDLimit.newBuilder()
+					.initialLimit(initialLimit)
+					.minLimit(minLimit)
+					.maxLimit(maxLimit)
+					.backoffRatio(backoffRatio)
+					.timeout(timeoutMs, TimeUnit.MILLISECONDS)
+					.build();
+		}
+
+		return Gradient2Limit.newBuilder()
+				.initialLimit(initialLimit)
+				.minLimit(minLimit)
+				.maxConcurrency(maxLimit)
+				.rttTolerance(rttTolerance)
+				.queueSize(queueSize)
+				.smoothing(smoothing)
+				.build();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	public void setAlgorithm(Algorithm algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	public int getInitialLimit() {
+		return initialLimit;
+	}
+
+	public void setInitialLimit(int initialLimit) {
+		this.initialLimit = initialLimit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public void setMinLimit(int minLimit) {
+		this.minLimit = minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+	}
+
+	public double getRttTolerance() {
+		return rttTolerance;
+	}
+
+	public void setRttTolerance(double rttTolerance) {
+		this.rttTolerance = rttTolerance;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	public double getSmoothing() {
+		return smoothing;
+	}
+
+	public void setSmoothing(double smoothing) {
+		this.smoothing = smoothing;
+	}
+
+	public double getBackoffRatio() {
+		return backoffRatio;
+	}
+
+	public void setBackoffRatio(double backoffRatio) {
+		this.backoffRatio = backoffRatio;
+	}
+
+	public long getTimeoutMs() {
+		return timeoutMs;
+	}
+
+	public void setTimeoutMs(long timeoutMs) {
+		this.timeoutMs = timeoutMs;
+	}
+}
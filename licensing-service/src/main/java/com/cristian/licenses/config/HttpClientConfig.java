@@ -0,0 +1,88 @@
+package com.cristian.licenses.config;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/**
+ * Shared, pooled Apache HttpClient used for the outgoing calls of the
+ * licensing service: the @LoadBalanced RestTemplate, the Feign clients (via
+ * feign-httpclient, which picks up this CloseableHttpClient bean) and the
+ * DiscoveryClient path. Connections are kept alive and reused between calls
+ * instead of opening a new one per request, and idle or expired connections
+ * are evicted in the background.
+ *
+ * The pool state (leased, pending and available connections) and the time
+ * spent waiting for a connection are published to the actuator metrics
+ * endpoint under httpcomponents.httpclient.pool.*.
+ */
+@Configuration
+public class HttpClientConfig {
+	private static final String POOL_NAME = "licensingservice";
+
+	@Autowired
+	private HttpClientProperties properties;
+
+	@Bean
+	public TimedConnectionManager httpClientConnectionManager(MeterRegistry meterRegistry) {
+		Timer acquireTimer = Timer.builder("httpcomponents.httpclient.pool.acquire")
+				.description("Time spent waiting to lease a connection from the pool")
+				.tag("httpclient", POOL_NAME)
+				.register(meterRegistry);
+
+		TimedConnectionManager connectionManager = new TimedConnectionManager(acquireTimer);
+		connectionManager.setMaxTotal(properties.getMaxTotal());
+		connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+		connectionManager.setValidateAfterInactivity(properties.getValidateAfterInactivityMs());
+		for (Map.Entry<String, Integer> route : properties.getRoutes().entrySet()) {
+			connectionManager.setMaxPerRoute(new HttpRoute(HttpHost.create(route.getKey())), route.getValue());
+		}
+
+		new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+		return connectionManager;
+	}
+
+	@Bean
+	public CloseableHttpClient httpClient(TimedConnectionManager connectionManager) {
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(properties.getConnectTimeoutMs())
+				.setConnectionRequestTimeout(properties.getConnectionRequestTimeoutMs())
+				.setSocketTimeout(properties.getReadTimeoutMs())
+				.build();
+
+		return HttpClientBuilder.create()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy(keepAliveStrategy())
+				.evictExpiredConnections()
+				.evictIdleConnections(properties.getIdleTimeoutSeconds(), TimeUnit.SECONDS)
+				.build();
+	}
+
+	/**
+	 * Honors the Keep-Alive timeout sent by the server and falls back to the
+	 * configured keep-alive when the server doesn't send one.
+	 */
+	private ConnectionKeepAliveStrategy keepAliveStrategy() {
+		long defaultKeepAlive = TimeUnit.SECONDS.toMillis(properties.getKeepAliveSeconds());
+
+		return (response, context) -> {
+			long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return keepAlive > 0 ? keepAlive : defaultKeepAlive;
+		};
+	}
+}
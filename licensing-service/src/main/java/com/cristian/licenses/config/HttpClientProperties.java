@@ -0,0 +1,100 @@
+package com.cristian.licenses.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the shared connection pool used by the @LoadBalanced
+ * RestTemplate, the Feign clients and the DiscoveryClient path.
+ *
+ * maxPerRoute is the default limit of connections to a single host; the
+ * routes map overrides it for specific hosts, keyed by "host:port".
+ */
+@Component
+@ConfigurationProperties(prefix = "licensing.http-client")
+public class HttpClientProperties {
+	private int maxTotal = 200;
+	private int maxPerRoute = 50;
+	private Map<String, Integer> routes = new HashMap<>();
+	private int connectTimeoutMs = 1000;
+	private int connectionRequestTimeoutMs = 1000;
+	private int readTimeoutMs = 2000;
+	private long keepAliveSeconds = 30;
+	private long idleTimeoutSeconds = 30;
+	private int validateAfterInactivityMs = 2000;
+
+	public int getMaxTotal() {
+		return maxTotal;
+	}
+
+	public void setMaxTotal(int maxTotal) {
+		this.maxTotal = maxTotal;
+	}
+
+	public int getMaxPerRoute() {
+		return maxPerRoute;
+	}
+
+	public void setMaxPerRoute(int maxPerRoute) {
+		this.maxPerRoute = maxPerRoute;
+	}
+
+	public Map<String, Integer> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(Map<String, Integer> routes) {
+		this.routes = routes;
+	}
+
+	public int getConnectTimeoutMs() {
+		return connectTimeoutMs;
+	}
+
+	public void setConnectTimeoutMs(int connectTimeoutMs) {
+		this.connectTimeoutMs = connectTimeoutMs;
+	}
+
+	public int getConnectionRequestTimeoutMs() {
+		return connectionRequestTimeoutMs;
+	}
+
+	public void setConnectionRequestTimeoutMs(int connectionRequestTimeoutMs) {
+		this.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+	}
+
+	public int getReadTimeoutMs() {
+		return readTimeoutMs;
+	}
+
+	public void setReadTimeoutMs(int readTimeoutMs) {
+		this.readTimeoutMs = readTimeoutMs;
+	}
+
+	public long getKeepAliveSeconds() {
+		return keepAliveSeconds;
+	}
+
+	public void setKeepAliveSeconds(long keepAliveSeconds) {
+		this.keepAliveSeconds = keepAliveSeconds;
+	}
+
+	public long getIdleTimeoutSeconds() {
+		return idleTimeoutSeconds;
+	}
+
+	public void setIdleTimeoutSeconds(long idleTimeoutSeconds) {
+		this.idleTimeoutSeconds = idleTimeoutSeconds;
+	}
+
+	public int getValidateAfterInactivityMs() {
+		return validateAfterInactivityMs;
+	}
+
+	public void setValidateAfterInactivityMs(int validateAfterInactivityMs) {
+		this.validateAfterInactivityMs = validateAfterInactivityMs;
+	}
+}
@@ -0,0 +1,48 @@
+package com.cristian.licenses.config;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * PoolingHttpClientConnectionManager that records how long the callers wait
+ * to lease a connection from the pool. A growing acquire time is the first
+ * sign that the pool is too small for the traffic.
+ */
+public class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+	private final Timer acquireTimer;
+
+	public TimedConnectionManager(Timer acquireTimer) {
+		this.acquireTimer = acquireTimer;
+	}
+
+	@Override
+	public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+		ConnectionRequest request = super.requestConnection(route, state);
+
+		return new ConnectionRequest() {
+			@Override
+			public HttpClientConnection get(long timeout, TimeUnit tunit)
+					throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+				long start = System.nanoTime();
+				try {
+					return request.get(timeout, tunit);
+				} finally {
+					acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				}
+			}
+
+			@Override
+			public boolean cancel() {
+				return request.cancel();
+			}
+		};
+	}
+}
@@ -1,38 +1,112 @@
 package com.cristian.licenses.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.cristian.licenses.config.ServiceConfig;
 import com.cristian.licenses.model.License;
+import com.cristian.licenses.model.LicenseBatchResult;
+import com.cristian.licenses.model.LicensePage;
+import com.cristian.licenses.services.LicenseBatchService;
 import com.cristian.licenses.services.LicenseService;
 import com.cristian.licenses.utils.UserContextHolder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @RestController
 @RequestMapping(value = "v1/organizations/{organizationId}/licenses")
 public class LicenseServiceController {
     private static final Logger logger = LoggerFactory.getLogger(LicenseServiceController.class);
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
     
 	@Autowired
 	private LicenseService licenseService;
 
+	@Autowired
+	private LicenseBatchService licenseBatchService;
+
 	@Autowired
 	private ServiceConfig serviceConfig;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/**
+	 * When the licenses come from the fallback cache the response carries a
+	 * Warning: 110 header, on top of the stale flag of every license.
+	 */
 	@RequestMapping(value = "/", method = RequestMethod.GET)
-	public List<License> getLicenses(@PathVariable("organizationId") String organizationId) {
+	public List<License> getLicenses(@PathVariable("organizationId") String organizationId,
+			HttpServletResponse response) {
         logger.debug("LicenseServiceController Correlation id: {}", UserContextHolder.getContext().getCorrelationId());
-		return licenseService.getLicensesByOrg(organizationId);
+		List<License> licenses = licenseService.getLicensesByOrg(organizationId);
+		if (licenses.stream().anyMatch(License::isStale)) {
+			response.setHeader(HttpHeaders.WARNING, STALE_WARNING);
+		}
+		return licenses;
+	}
+
+	/**
+	 * Keyset paginated variant of the list, e.g. ?limit=100 for the first page
+	 * and ?limit=100&after={nextCursor} for the following ones.
+	 */
+	@RequestMapping(value = "/", method = RequestMethod.GET, params = "limit")
+	public LicensePage getLicensesPage(@PathVariable("organizationId") String organizationId,
+			@RequestParam(value = "after", required = false) String after, @RequestParam("limit") int limit) {
+		return licenseService.getLicensesPage(organizationId, after, limit);
+	}
+
+	/**
+	 * Streams the licenses as newline delimited JSON (Accept: application/x-ndjson).
+	 * Each license is written to the response as soon as it is read from the
+	 * database, so the full list is never held in memory.
+	 */
+	@RequestMapping(value = "/", method = RequestMethod.GET, produces = NDJSON)
+	public StreamingResponseBody streamLicenses(@PathVariable("organizationId") String organizationId) {
+		return outputStream -> {
+			// rows are buffered by the servlet container and sent whenever its buffer fills up
+			ObjectWriter ndjsonWriter = objectMapper.writer().withRootValueSeparator("\n")
+					.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+					.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+			AtomicLong written = new AtomicLong();
+			try (SequenceWriter writer = ndjsonWriter.writeValues(outputStream)) {
+				licenseService.streamLicensesByOrg(organizationId, license -> {
+					try {
+						writer.write(license);
+						written.incrementAndGet();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+			if (written.get() > 0) {
+				outputStream.write('\n');
+			}
+			outputStream.flush();
+		};
 	}
 
 	@RequestMapping(value = "/{licenseId}", method = RequestMethod.GET)
@@ -59,6 +133,16 @@ public class LicenseServiceController {
 		licenseService.saveLicense(license);
 	}
 
+	/**
+	 * Bulk create/update: licenses without licenseId are created, the others are
+	 * updated. The response has one result per license, in request order.
+	 */
+	@RequestMapping(value = "/batch", method = RequestMethod.POST)
+	public List<LicenseBatchResult> saveLicensesBatch(@PathVariable("organizationId") String organizationId,
+			@RequestBody List<License> licenses) {
+		return licenseBatchService.saveLicenses(organizationId, licenses);
+	}
+
 	@RequestMapping(value = "{licenseId}", method = RequestMethod.DELETE)
 	@ResponseStatus(HttpStatus.NO_CONTENT)
 	public void deleteLicenses(@PathVariable("licenseId") String licenseId, @RequestBody License license) {
@@ -29,6 +29,7 @@ public final class DelegatingUserContextCallable<V> implements Callable<V> {
      * @HystrixCommand annotation.
      */
     public V call() throws Exception {
+        UserContext previousUserContext = UserContextHolder.getContext();
         UserContextHolder.setContext( originalUserContext );
 
         try {
@@ -40,6 +41,8 @@ public final class DelegatingUserContextCallable<V> implements Callable<V> {
             return delegate.call();
         }
         finally {
+            // the Hystrix threads are pooled, don't leave the context behind for the next command
+            UserContextHolder.restoreContext(previousUserContext);
             this.originalUserContext = null;
         }
     }
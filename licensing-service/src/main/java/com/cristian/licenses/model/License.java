@@ -6,6 +6,8 @@ import javax.persistence.Id;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 @Entity
 @Table(name = "licenses")
 public class License {
@@ -13,7 +15,7 @@ public class License {
 	@Column(name = "license_id", nullable = false)
 	private String licenseId;
 
-	@Column(name = "organization_id", nullable = false)
+	@Column(name = "organization_id", nullable = false, length = 100)
 	private String organizationId;
 
 	@Transient
@@ -43,6 +45,11 @@ public class License {
 	@Column(name = "comment")
 	private String comment;
 
+	/** Set on licenses served from the fallback cache instead of the database. */
+	@Transient
+	@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+	private boolean stale;
+
 	public Integer getLicenseMax() {
 		return licenseMax;
 	}
@@ -131,6 +138,14 @@ public class License {
 		this.contactEmail = contactEmail;
 	}
 
+	public boolean isStale() {
+		return stale;
+	}
+
+	public void setStale(boolean stale) {
+		this.stale = stale;
+	}
+
 	public License withId(String id) {
 		this.setLicenseId(id);
 		return this;
@@ -186,4 +201,9 @@ public class License {
 		return this;
 	}
 
+	public License withStale(boolean stale) {
+		this.setStale(stale);
+		return this;
+	}
+
 }
\ No newline at end of file
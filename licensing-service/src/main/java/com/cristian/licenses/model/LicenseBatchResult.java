@@ -0,0 +1,58 @@
+package com.cristian.licenses.model;
+
+/**
+ * Outcome of a single license of a bulk create/update request. index is the
+ * position of the license in the request body.
+ */
+public class LicenseBatchResult {
+	public enum Status {
+		CREATED, UPDATED, NOT_FOUND, FAILED
+	}
+
+	private int index;
+	private String licenseId;
+	private Status status;
+	private String message;
+
+	public LicenseBatchResult() {
+	}
+
+	public LicenseBatchResult(int index, String licenseId, Status status, String message) {
+		this.index = index;
+		this.licenseId = licenseId;
+		this.status = status;
+		this.message = message;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public String getLicenseId() {
+		return licenseId;
+	}
+
+	public void setLicenseId(String licenseId) {
+		this.licenseId = licenseId;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
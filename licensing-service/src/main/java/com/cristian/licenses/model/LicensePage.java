@@ -0,0 +1,37 @@
+package com.cristian.licenses.model;
+
+import java.util.List;
+
+/**
+ * A page of licenses from a keyset paginated query. nextCursor holds the
+ * license id to pass as the "after" parameter to get the next page, it is
+ * null on the last page.
+ */
+public class LicensePage {
+	private List<License> licenses;
+	private String nextCursor;
+
+	public LicensePage() {
+	}
+
+	public LicensePage(List<License> licenses, String nextCursor) {
+		this.licenses = licenses;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<License> getLicenses() {
+		return licenses;
+	}
+
+	public void setLicenses(List<License> licenses) {
+		this.licenses = licenses;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
@@ -1,5 +1,7 @@
 package com.cristian.licenses.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class Organization {
     String id;
     String name;
@@ -7,6 +9,10 @@ public class Organization {
     String contactEmail;
     String contactPhone;
 
+    /** ETag of the response the organization was read from, if any. */
+    @JsonIgnore
+    String etag;
+
 
     public String getId() {
         return id;
@@ -48,5 +54,13 @@ public class Organization {
         this.contactPhone = contactPhone;
     }
 
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
 
 }
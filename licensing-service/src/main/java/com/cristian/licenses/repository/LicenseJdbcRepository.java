@@ -0,0 +1,121 @@
+package com.cristian.licenses.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.cristian.licenses.model.License;
+
+/**
+ * Plain JDBC access to the licenses table for the cases where going through
+ * JPA would mean holding every row in memory.
+ */
+@Repository
+public class LicenseJdbcRepository {
+	private static final String SELECT_BY_ORGANIZATION = "SELECT license_id, organization_id, license_type, "
+			+ "product_name, license_max, license_allocated, comment FROM licenses "
+			+ "WHERE organization_id = ? ORDER BY license_id";
+
+	private static final String INSERT = "INSERT INTO licenses (license_id, organization_id, license_type, "
+			+ "product_name, license_max, license_allocated, comment) VALUES (?, ?, ?, ?, ?, ?, ?)";
+	private static final String UPDATE = "UPDATE licenses SET license_type = ?, product_name = ?, license_max = ?, "
+			+ "license_allocated = ?, comment = ? WHERE license_id = ? AND organization_id = ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public LicenseJdbcRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Inserts the licenses as one JDBC batch, without checking first whether
+	 * they exist: the ids are new UUIDs. With MySQL Connector/J the batch is
+	 * only sent as a multi-row insert when the JDBC url sets
+	 * rewriteBatchedStatements=true.
+	 *
+	 * @return the update count of every license, in order
+	 */
+	public int[] insertBatch(List<License> licenses) {
+		return jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				License license = licenses.get(i);
+				ps.setString(1, license.getLicenseId());
+				ps.setString(2, license.getOrganizationId());
+				ps.setString(3, license.getLicenseType());
+				ps.setString(4, license.getProductName());
+				ps.setInt(5, license.getLicenseMax());
+				ps.setObject(6, license.getLicenseAllocated(), Types.INTEGER);
+				ps.setString(7, license.getComment());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return licenses.size();
+			}
+		});
+	}
+
+	/**
+	 * Updates the licenses as one JDBC batch.
+	 *
+	 * @return the update count of every license, in order. 0 means the license
+	 *         doesn't exist for that organization.
+	 */
+	public int[] updateBatch(List<License> licenses) {
+		return jdbcTemplate.batchUpdate(UPDATE, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				License license = licenses.get(i);
+				ps.setString(1, license.getLicenseType());
+				ps.setString(2, license.getProductName());
+				ps.setInt(3, license.getLicenseMax());
+				ps.setObject(4, license.getLicenseAllocated(), Types.INTEGER);
+				ps.setString(5, license.getComment());
+				ps.setString(6, license.getLicenseId());
+				ps.setString(7, license.getOrganizationId());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return licenses.size();
+			}
+		});
+	}
+
+	/**
+	 * Reads the licenses of an organization row by row and hands each one to
+	 * the consumer as soon as it is read. The driver fetches fetchSize rows at
+	 * a time, so only that many rows are held in memory. With MySQL
+	 * Connector/J the rows are only fetched in chunks when the JDBC url sets
+	 * useCursorFetch=true, otherwise the driver reads the whole result.
+	 */
+	public void streamByOrganizationId(String organizationId, int fetchSize, Consumer<License> consumer) {
+		jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(SELECT_BY_ORGANIZATION,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(fetchSize);
+			statement.setString(1, organizationId);
+			return statement;
+		}, (ResultSet rs) -> {
+			consumer.accept(mapLicense(rs));
+		});
+	}
+
+	private License mapLicense(ResultSet rs) throws SQLException {
+		return new License().withId(rs.getString("license_id"))
+				.withOrganizationId(rs.getString("organization_id"))
+				.withLicenseType(rs.getString("license_type"))
+				.withProductName(rs.getString("product_name"))
+				.withLicenseMax(rs.getInt("license_max"))
+				.withLicenseAllocated(rs.getObject("license_allocated", Integer.class))
+				.withComment(rs.getString("comment"));
+	}
+}
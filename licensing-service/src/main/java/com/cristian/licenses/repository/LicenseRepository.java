@@ -2,6 +2,7 @@ package com.cristian.licenses.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,4 +12,8 @@ import com.cristian.licenses.model.License;
 public interface LicenseRepository extends CrudRepository<License, String>  {
     public List<License> findByOrganizationId(String organizationId);
     public License findByOrganizationIdAndLicenseId(String organizationId,String licenseId);
+
+    // keyset pagination on license_id, see LicenseService.getLicensesPage
+    public List<License> findByOrganizationIdOrderByLicenseIdAsc(String organizationId, Pageable pageable);
+    public List<License> findByOrganizationIdAndLicenseIdGreaterThanOrderByLicenseIdAsc(String organizationId, String licenseId, Pageable pageable);
 }
@@ -0,0 +1,146 @@
+package com.cristian.licenses.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.cristian.licenses.cache.LicenseFallbackCache;
+import com.cristian.licenses.model.License;
+import com.cristian.licenses.model.LicenseBatchResult;
+import com.cristian.licenses.model.LicenseBatchResult.Status;
+import com.cristian.licenses.repository.LicenseJdbcRepository;
+
+/**
+ * Bulk creation and update of licenses.
+ *
+ * Licenses without an id are created with a new UUID, licenses with an id are
+ * updated. Both are written with JDBC batches of batchSize rows, each batch in
+ * its own transaction, instead of one JPA save (a SELECT followed by an INSERT
+ * or UPDATE) per license. When a batch fails it is rolled back and its
+ * licenses are retried one by one, so the response reports exactly which
+ * licenses couldn't be written.
+ */
+@Service
+public class LicenseBatchService {
+	private static final Logger logger = LoggerFactory.getLogger(LicenseBatchService.class);
+
+	@Autowired
+	private LicenseJdbcRepository licenseJdbcRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private LicenseFallbackCache licenseFallbackCache;
+
+	@Value("${licensing.licenses.bulk.max-items:10000}")
+	private int maxItems;
+
+	@Value("${licensing.licenses.bulk.batch-size:500}")
+	private int batchSize;
+
+	public List<LicenseBatchResult> saveLicenses(String organizationId, List<License> licenses) {
+		if (licenses.size() > maxItems) {
+			throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+					"A bulk request accepts at most " + maxItems + " licenses");
+		}
+
+		LicenseBatchResult[] results = new LicenseBatchResult[licenses.size()];
+		List<Integer> inserts = new ArrayList<>();
+		List<Integer> updates = new ArrayList<>();
+
+		for (int i = 0; i < licenses.size(); i++) {
+			License license = licenses.get(i);
+			String error = validate(license);
+			if (error != null) {
+				results[i] = new LicenseBatchResult(i, license == null ? null : license.getLicenseId(), Status.FAILED, error);
+				continue;
+			}
+
+			license.withOrganizationId(organizationId);
+			if (license.getLicenseId() == null || license.getLicenseId().isEmpty()) {
+				license.withId(UUID.randomUUID().toString());
+				inserts.add(i);
+			} else {
+				updates.add(i);
+			}
+		}
+
+		write(licenses, inserts, licenseJdbcRepository::insertBatch, Status.CREATED, results);
+		write(licenses, updates, licenseJdbcRepository::updateBatch, Status.UPDATED, results);
+		licenseFallbackCache.evict(organizationId);
+
+		logger.debug("Bulk write for organization {}: {} inserts, {} updates", organizationId, inserts.size(),
+				updates.size());
+		return Arrays.asList(results);
+	}
+
+	private void write(List<License> licenses, List<Integer> indexes, Function<List<License>, int[]> writer,
+			Status successStatus, LicenseBatchResult[] results) {
+		for (int from = 0; from < indexes.size(); from += batchSize) {
+			List<Integer> chunkIndexes = indexes.subList(from, Math.min(from + batchSize, indexes.size()));
+			List<License> chunk = new ArrayList<>(chunkIndexes.size());
+			chunkIndexes.forEach(index -> chunk.add(licenses.get(index)));
+
+			try {
+				int[] counts = transactionTemplate.execute(status -> writer.apply(chunk));
+				for (int i = 0; i < chunkIndexes.size(); i++) {
+					record(chunkIndexes.get(i), chunk.get(i), counts[i], successStatus, results);
+				}
+			} catch (DataAccessException e) {
+				logger.debug("Batch of {} licenses failed, retrying them one by one: {}", chunk.size(), e.toString());
+				writeOneByOne(chunkIndexes, chunk, writer, successStatus, results);
+			}
+		}
+	}
+
+	private void writeOneByOne(List<Integer> chunkIndexes, List<License> chunk, Function<List<License>, int[]> writer,
+			Status successStatus, LicenseBatchResult[] results) {
+		for (int i = 0; i < chunkIndexes.size(); i++) {
+			License license = chunk.get(i);
+			int index = chunkIndexes.get(i);
+			try {
+				int[] counts = transactionTemplate.execute(status -> writer.apply(Collections.singletonList(license)));
+				record(index, license, counts[0], successStatus, results);
+			} catch (DataAccessException e) {
+				results[index] = new LicenseBatchResult(index, license.getLicenseId(), Status.FAILED,
+						e.getMostSpecificCause().getMessage());
+			}
+		}
+	}
+
+	private void record(int index, License license, int count, Status successStatus, LicenseBatchResult[] results) {
+		// drivers may report SUCCESS_NO_INFO (-2) instead of the row count
+		Status status = count == 0 ? Status.NOT_FOUND : successStatus;
+		results[index] = new LicenseBatchResult(index, license.getLicenseId(), status, null);
+	}
+
+	private String validate(License license) {
+		if (license == null) {
+			return "license is required";
+		}
+		if (license.getProductName() == null) {
+			return "productName is required";
+		}
+		if (license.getLicenseType() == null) {
+			return "licenseType is required";
+		}
+		if (license.getLicenseMax() == null) {
+			return "licenseMax is required";
+		}
+		return null;
+	}
+}
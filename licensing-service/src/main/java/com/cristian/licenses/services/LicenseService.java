@@ -2,22 +2,45 @@ package com.cristian.licenses.services;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Iterator;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.cristian.licenses.clients.OrganizationDiscoveryClient;
-import com.cristian.licenses.clients.OrganizationFeignClient;
-import com.cristian.licenses.clients.OrganizationRestTemplateClient;
+import com.cristian.licenses.cache.LicenseFallbackCache;
+import com.cristian.licenses.config.ConcurrencyLimitProperties;
 import com.cristian.licenses.config.ServiceConfig;
 import com.cristian.licenses.model.License;
+import com.cristian.licenses.model.LicensePage;
 import com.cristian.licenses.model.Organization;
+import com.cristian.licenses.repository.LicenseJdbcRepository;
 import com.cristian.licenses.repository.LicenseRepository;
+import com.cristian.licenses.utils.ConcurrencyLimiter;
 import com.cristian.licenses.utils.UserContextHolder;
+import com.netflix.hystrix.HystrixCircuitBreaker;
+import com.netflix.hystrix.HystrixCommandKey;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,50 +48,120 @@ import org.slf4j.LoggerFactory;
 @Service
 public class LicenseService {
     private static final Logger logger = LoggerFactory.getLogger(LicenseService.class);
+	private static final String LICENSES_BY_ORG_COMMAND = "getLicensesByOrg";
 
 	@Autowired
 	private LicenseRepository licenseRepository;
 
+	@Autowired
+	private LicenseJdbcRepository licenseJdbcRepository;
+
 	@Autowired
 	ServiceConfig config;
 
 	@Autowired
-	OrganizationFeignClient organizationFeignClient;
+	OrganizationService organizationService;
 
 	@Autowired
-	OrganizationRestTemplateClient organizationRestClient;
+	@Qualifier("organizationLookupExecutor")
+	private AsyncTaskExecutor organizationLookupExecutor;
 
 	@Autowired
-	OrganizationDiscoveryClient organizationDiscoveryClient;
-
-	private Organization retrieveOrgInfo(String organizationId, String clientType) {
-		Organization organization = null;
-
-		switch (clientType) {
-		case "feign":
-			System.out.println("I am using the feign client");
-			organization = organizationFeignClient.getOrganization(organizationId);
-			break;
-		case "rest":
-			System.out.println("I am using the rest client");
-			organization = organizationRestClient.getOrganization(organizationId);
-			break;
-		case "discovery":
-			System.out.println("I am using the discovery client");
-			organization = organizationDiscoveryClient.getOrganization(organizationId);
-			break;
-		default:
-			organization = organizationRestClient.getOrganization(organizationId);
-		}
+	private ConcurrencyLimitProperties concurrencyLimitProperties;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
 
-		return organization;
+	private ConcurrencyLimiter licensesByOrgLimiter;
+
+	@Autowired
+	private LicenseFallbackCache licenseFallbackCache;
+
+	@Value("${licensing.get-license.async.enabled:false}")
+	private boolean asyncGetLicense;
+
+	@Value("${licensing.get-license.async.timeout-ms:2000}")
+	private long asyncGetLicenseTimeout;
+
+	@Value("${licensing.licenses.max-page-size:500}")
+	private int maxPageSize;
+
+	@Value("${licensing.licenses.stream-fetch-size:500}")
+	private int streamFetchSize;
+
+	@PostConstruct
+	public void init() {
+		licensesByOrgLimiter = new ConcurrencyLimiter("licenses.byorg.limiter", concurrencyLimitProperties.newLimit(),
+				meterRegistry);
 	}
 
 	public License getLicense(String organizationId, String licenseId, String clientType) {
+		if (asyncGetLicense) {
+			return getLicenseAsync(organizationId, licenseId, clientType);
+		}
+
 		License license = licenseRepository.findByOrganizationIdAndLicenseId(organizationId, licenseId);
 
-		Organization org = retrieveOrgInfo(organizationId, clientType);
+		Organization org = organizationService.getOrganization(organizationId, clientType);
+
+		return withOrganizationInfo(license, org);
+	}
+
+	/**
+	 * The license read and the organization lookup don't depend on each other,
+	 * so the organization lookup is started on the organizationLookupExecutor
+	 * while the license is read on the calling thread. The request then takes
+	 * the time of the slowest call instead of the sum of both.
+	 *
+	 * Like a Hystrix command, the organization lookup is bounded by a timeout
+	 * and falls back to the license without organization information if it
+	 * times out, fails or is rejected because the executor is saturated. A
+	 * lookup that times out is cancelled: it is dropped if it hasn't started
+	 * yet, otherwise its thread is interrupted, which ends a wait for a
+	 * connection or for an in-flight fetch of the same organization. A socket
+	 * read can't be interrupted and runs until the HTTP read timeout, so that
+	 * timeout should not be longer than the async timeout.
+	 */
+	private License getLicenseAsync(String organizationId, String licenseId, String clientType) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(asyncGetLicenseTimeout);
+
+		Future<Organization> orgLookup = null;
+		RejectedExecutionException rejected = null;
+		try {
+			orgLookup = organizationLookupExecutor
+					.submit(() -> organizationService.getOrganization(organizationId, clientType));
+		} catch (RejectedExecutionException e) {
+			rejected = e;
+		}
+
+		License license = licenseRepository.findByOrganizationIdAndLicenseId(organizationId, licenseId);
+
+		Organization org;
+		if (orgLookup == null) {
+			org = buildFallbackOrganization(organizationId, rejected);
+		} else {
+			try {
+				org = orgLookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				orgLookup.cancel(true);
+				org = buildFallbackOrganization(organizationId, e);
+			} catch (ExecutionException | TimeoutException e) {
+				orgLookup.cancel(true);
+				org = buildFallbackOrganization(organizationId, e);
+			}
+		}
+
+		return withOrganizationInfo(license, org);
+	}
+
+	private Organization buildFallbackOrganization(String organizationId, Exception cause) {
+		logger.warn("Organization lookup for {} failed, returning the license without organization info: {}",
+				organizationId, cause.toString());
+		return new Organization();
+	}
 
+	private License withOrganizationInfo(License license, Organization org) {
 		return license.withOrganizationName(org.getName()).withContactName(org.getContactName())
 				.withContactEmail(org.getContactEmail()).withContactPhone(org.getContactPhone())
 				.withComment(config.getExampleProperty());
@@ -99,10 +192,29 @@ public class LicenseService {
 	 * 
 	 * The fallbackMethod attribute defines a single function in your class that
 	 * will be called if the call from Hystrix fails.
+	 * 
+	 * The properties below are only the defaults of the command, any of them can
+	 * be overridden in application.yml under hystrix.command.getLicensesByOrg.
+	 * Setting execution.isolation.strategy to SEMAPHORE runs this local DB query
+	 * on the caller thread: there is no hand-off to the licenseByOrgThreadPool,
+	 * so ThreadLocalAwareStrategy doesn't have to copy the UserContext. The
+	 * circuit breaker and the timeout still apply, but on a timeout the caller
+	 * thread gets the fallback only once the query returns.
+	 *
+	 * Inside the command the query goes through licensesByOrgLimiter, which
+	 * adapts the number of queries in flight to their latency and is the real
+	 * bound on them. When the limit is reached the fallback list is returned
+	 * right away; these rejections don't count as failures for the circuit
+	 * breaker. The licenseByOrgThreadPool (and maxConcurrentRequests, with
+	 * SEMAPHORE isolation) is only a backstop and has to stay above
+	 * licensing.concurrency-limit.max-limit, otherwise it caps the limit.
 	 */
 	@HystrixCommand(
+			commandKey = LICENSES_BY_ORG_COMMAND,
 			fallbackMethod = "buildFallbackLicenseList", 
 			commandProperties = {
+				@HystrixProperty(name="execution.isolation.strategy", value="THREAD"),
+				@HystrixProperty(name="execution.isolation.semaphore.maxConcurrentRequests", value="200"),
 				@HystrixProperty(name="execution.isolation.thread.timeoutInMilliseconds", value="2000"),  // set the lenght of the timeout in ms 
 				@HystrixProperty(name="circuitBreaker.requestVolumeThreshold", value="10"),
                 @HystrixProperty(name="circuitBreaker.errorThresholdPercentage", value="75"),
@@ -111,14 +223,90 @@ public class LicenseService {
                 @HystrixProperty(name="metrics.rollingStats.numBuckets", value="5")},
 			threadPoolKey = "licenseByOrgThreadPool", // the unique name of the thread pool
 			threadPoolProperties = 
-				{@HystrixProperty(name = "coreSize", value = "30"),  // maximum number of threads
+				{@HystrixProperty(name = "coreSize", value = "120"),  // maximum number of threads, above the concurrency-limit max-limit
 				 @HystrixProperty(name = "maxQueueSize", value = "10") }) // queue that sits in front of your thread pool and that can queue incoming requests.
 	public List<License> getLicensesByOrg(String organizationId) {
         logger.debug("LicenseService.getLicensesByOrg  Correlation id: {}", UserContextHolder.getContext().getCorrelationId());
 		
+		if (!concurrencyLimitProperties.isEnabled()) {
+			return findLicensesByOrg(organizationId);
+		}
+		return licensesByOrgLimiter.execute(() -> findLicensesByOrg(organizationId),
+				() -> buildFallbackLicenseList(organizationId));
+	}
+
+	private List<License> findLicensesByOrg(String organizationId) {
 		randomlyRunLong();
 
-		return licenseRepository.findByOrganizationId(organizationId);
+		List<License> licenses = licenseRepository.findByOrganizationId(organizationId);
+		licenseFallbackCache.put(organizationId, licenses);
+		return licenses;
+	}
+
+	/**
+	 * Reloads the last known good licenses of the organizations that were
+	 * served stale, once the getLicensesByOrg circuit breaker is closed again.
+	 * The queries go through licensesByOrgLimiter so the refresh never adds
+	 * more load than the database currently handles; whatever can't be
+	 * refreshed now is retried on the next run.
+	 */
+	@Scheduled(fixedDelayString = "${licensing.licenses.fallback-cache.refresh-interval-ms:10000}")
+	public void refreshStaleLicenses() {
+		HystrixCircuitBreaker breaker = HystrixCircuitBreaker.Factory
+				.getInstance(HystrixCommandKey.Factory.asKey(LICENSES_BY_ORG_COMMAND));
+		if (!licenseFallbackCache.isEnabled() || (breaker != null && breaker.isOpen())) {
+			return;
+		}
+
+		Set<String> stale = licenseFallbackCache.drainServedStale();
+		Iterator<String> organizationIds = stale.iterator();
+		while (organizationIds.hasNext()) {
+			String organizationId = organizationIds.next();
+			try {
+				List<License> licenses = licensesByOrgLimiter
+						.execute(() -> licenseRepository.findByOrganizationId(organizationId), () -> null);
+				if (licenses == null) {
+					break;
+				}
+				licenseFallbackCache.put(organizationId, licenses);
+				organizationIds.remove();
+			} catch (RuntimeException e) {
+				logger.warn("Refreshing the licenses of {} failed: {}", organizationId, e.toString());
+				break;
+			}
+		}
+		stale.forEach(licenseFallbackCache::markServedStale);
+	}
+
+	/**
+	 * Keyset pagination on license_id: instead of an OFFSET the query starts
+	 * right after the last license id of the previous page, so every page costs
+	 * the same no matter how deep the client is in the list. One extra row is
+	 * read to know whether there is a next page.
+	 */
+	public LicensePage getLicensesPage(String organizationId, String afterLicenseId, int limit) {
+		int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+		Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+		List<License> licenses = afterLicenseId == null || afterLicenseId.isEmpty()
+				? licenseRepository.findByOrganizationIdOrderByLicenseIdAsc(organizationId, pageable)
+				: licenseRepository.findByOrganizationIdAndLicenseIdGreaterThanOrderByLicenseIdAsc(organizationId,
+						afterLicenseId, pageable);
+
+		if (licenses.size() <= pageSize) {
+			return new LicensePage(licenses, null);
+		}
+
+		List<License> page = new ArrayList<>(licenses.subList(0, pageSize));
+		return new LicensePage(page, page.get(pageSize - 1).getLicenseId());
+	}
+
+	/**
+	 * Hands the licenses of the organization to the consumer while they are
+	 * read from the database, without building the full list in memory.
+	 */
+	public void streamLicensesByOrg(String organizationId, Consumer<License> consumer) {
+		licenseJdbcRepository.streamByOrganizationId(organizationId, streamFetchSize, consumer);
 	}
 
 	/**
@@ -127,9 +315,16 @@ public class LicenseService {
 	 * to wrap the fallback with a @HystrixCommand annotation. Remember, the same
 	 * failure that you’re experiencing with your primary course of action might
 	 * also impact your secondary fallback option. Code defensively.
+	 *
+	 * The last licenses read for the organization are returned when there are
+	 * any, marked as stale; the placeholder license only when there is none.
 	 */
-	@SuppressWarnings("unused")
 	private List<License> buildFallbackLicenseList(String organizationId) {
+		List<License> lastKnownGood = licenseFallbackCache.getStale(organizationId);
+		if (lastKnownGood != null) {
+			return lastKnownGood;
+		}
+
 		List<License> fallbackList = new ArrayList<>();
 		License license = new License().withId("0000000-00-00000").withOrganizationId(organizationId)
 				.withProductName("Sorry no licensing information currently available");
@@ -141,15 +336,25 @@ public class LicenseService {
 		license.withId(UUID.randomUUID().toString());
 
 		licenseRepository.save(license);
-
+		evictFallback(license);
 	}
 
 	public void updateLicense(License license) {
 		licenseRepository.save(license);
+		evictFallback(license);
 	}
 
 	public void deleteLicense(License license) {
 		licenseRepository.deleteById(license.getLicenseId());
+		evictFallback(license);
+	}
+
+	private void evictFallback(License license) {
+		if (license.getOrganizationId() != null) {
+			licenseFallbackCache.evict(license.getOrganizationId());
+		} else {
+			licenseFallbackCache.evictAll();
+		}
 	}
 
 }
\ No newline at end of file
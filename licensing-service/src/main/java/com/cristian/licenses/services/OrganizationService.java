@@ -1,7 +1,141 @@
 package com.cristian.licenses.services;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import com.cristian.licenses.cache.OrganizationCache;
+import com.cristian.licenses.clients.ConditionalRequests;
+import com.cristian.licenses.clients.OrganizationDiscoveryClient;
+import com.cristian.licenses.clients.OrganizationFeignClient;
+import com.cristian.licenses.clients.OrganizationRestTemplateClient;
+import com.cristian.licenses.model.Organization;
+import com.cristian.licenses.utils.SingleFlight;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Single entry point for organization lookups. The remote call goes through
+ * the client selected by clientType and its result is kept in the
+ * OrganizationCache, so repeated lookups for the same organization don't
+ * reach the organizationservice. Concurrent cache misses for the same
+ * organization are collapsed into a single remote call. When the cache holds
+ * an expired copy of the organization, the single lookups are conditional
+ * GETs that keep the copy if the organizationservice answers 304.
+ */
 @Service
 public class OrganizationService {
-}
\ No newline at end of file
+	private static final Logger logger = LoggerFactory.getLogger(OrganizationService.class);
+
+	@Autowired
+	OrganizationFeignClient organizationFeignClient;
+
+	@Autowired
+	OrganizationRestTemplateClient organizationRestClient;
+
+	@Autowired
+	OrganizationDiscoveryClient organizationDiscoveryClient;
+
+	@Autowired
+	OrganizationCache organizationCache;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${organization.fetch.wait-timeout-ms:3000}")
+	private long fetchWaitTimeoutMs;
+
+	private SingleFlight<String, Organization> organizationFetches;
+
+	@PostConstruct
+	public void init() {
+		organizationFetches = new SingleFlight<>("organization.fetch", fetchWaitTimeoutMs, meterRegistry);
+	}
+
+	/**
+	 * Concurrent misses are only collapsed when they ask for the same client
+	 * type, the key of the fetch is the client type and the organization id.
+	 */
+	public Organization getOrganization(String organizationId, String clientType) {
+		return organizationCache.get(organizationId, (id, cached) -> organizationFetches
+				.execute(clientType + "/" + id, key -> retrieveOrgInfo(id, cached, clientType)));
+	}
+
+	/**
+	 * Resolves many organizations at once. Only the ids that aren't cached are
+	 * sent to the organizationservice, all of them in a single batch request.
+	 */
+	public Map<String, Organization> getOrganizations(Set<String> organizationIds, String clientType) {
+		return organizationCache.getAll(organizationIds, ids -> retrieveOrgsInfo(ids, clientType));
+	}
+
+	private Map<String, Organization> retrieveOrgsInfo(Set<String> organizationIds, String clientType) {
+		List<Organization> organizations = null;
+
+		switch (clientType) {
+		case "feign":
+			organizations = organizationFeignClient.getOrganizations(organizationIds);
+			break;
+		case "rest":
+			organizations = organizationRestClient.getOrganizations(organizationIds);
+			break;
+		case "discovery":
+			organizations = organizationDiscoveryClient.getOrganizations(organizationIds);
+			break;
+		default:
+			organizations = organizationRestClient.getOrganizations(organizationIds);
+		}
+
+		Map<String, Organization> result = new HashMap<>();
+		if (organizations != null) {
+			organizations.forEach(organization -> result.put(organization.getId(), organization));
+		}
+		return result;
+	}
+
+	private Organization retrieveOrgInfo(String organizationId, Organization cached, String clientType) {
+		Organization organization = null;
+
+		switch (clientType) {
+		case "feign":
+			logger.debug("Retrieving organization {} with the feign client", organizationId);
+			organization = retrieveOrgInfoWithFeign(organizationId, cached);
+			break;
+		case "rest":
+			logger.debug("Retrieving organization {} with the rest client", organizationId);
+			organization = organizationRestClient.getOrganization(organizationId, cached);
+			break;
+		case "discovery":
+			logger.debug("Retrieving organization {} with the discovery client", organizationId);
+			organization = organizationDiscoveryClient.getOrganization(organizationId, cached);
+			break;
+		default:
+			organization = organizationRestClient.getOrganization(organizationId, cached);
+		}
+
+		return organization;
+	}
+
+	private Organization retrieveOrgInfoWithFeign(String organizationId, Organization cached) {
+		try {
+			return ConditionalRequests.resolve(organizationFeignClient.getOrganizationIfNoneMatch(organizationId,
+					ConditionalRequests.ifNoneMatch(cached)), cached);
+		} catch (FeignException e) {
+			if (cached != null && e.status() == HttpStatus.NOT_MODIFIED.value()) {
+				return cached;
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.cristian.licenses.utils;
+
+import java.io.InterruptedIOException;
+import java.sql.SQLTimeoutException;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.dao.QueryTimeoutException;
+
+import com.netflix.concurrency.limits.Limit;
+import com.netflix.concurrency.limits.Limiter;
+import com.netflix.concurrency.limits.limiter.SimpleLimiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounds the number of calls in flight with an adaptive limit. Every call
+ * reports its latency to the Limit, which raises or lowers the number of
+ * calls allowed at the same time. Once the limit is reached new calls are
+ * rejected right away instead of queueing up behind the slow ones, and get
+ * the rejected result.
+ *
+ * Calls that time out or are interrupted (e.g. by a Hystrix timeout) are
+ * reported to the Limit as dropped, the overload signal that makes it shrink.
+ * Other failures are business errors that say nothing about the load and are
+ * left out of the measurement.
+ *
+ * Published metrics: {name}.limit and {name}.inflight gauges, and
+ * {name}.calls with outcome=success, failed, dropped and rejected.
+ */
+public class ConcurrencyLimiter {
+	private final SimpleLimiter<Void> limiter;
+	private final Counter succeeded;
+	private final Counter failed;
+	private final Counter dropped;
+	private final Counter rejected;
+
+	public ConcurrencyLimiter(String name, Limit limit, MeterRegistry meterRegistry) {
+		this.limiter = SimpleLimiter.newBuilder().named(name).limit(limit).build();
+
+		Gauge.builder(name + ".limit", limiter::getLimit).description("Calls allowed in flight")
+				.register(meterRegistry);
+		Gauge.builder(name + ".inflight", limiter::getInflight).description("Calls in flight")
+				.register(meterRegistry);
+		this.succeeded = Counter.builder(name + ".calls").tag("outcome", "success")
+				.description("Calls that completed").register(meterRegistry);
+		this.failed = Counter.builder(name + ".calls").tag("outcome", "failed")
+				.description("Calls that threw an exception").register(meterRegistry);
+		this.dropped = Counter.builder(name + ".calls").tag("outcome", "dropped")
+				.description("Calls that timed out or were interrupted").register(meterRegistry);
+		this.rejected = Counter.builder(name + ".calls").tag("outcome", "rejected")
+				.description("Calls rejected because the limit was reached").register(meterRegistry);
+	}
+
+	/**
+	 * Runs the call if the limit allows it, otherwise returns the result of
+	 * onRejected without running the call.
+	 */
+	public <T> T execute(Supplier<T> call, Supplier<T> onRejected) {
+		Optional<Limiter.Listener> acquired = limiter.acquire(null);
+		if (!acquired.isPresent()) {
+			rejected.increment();
+			return onRejected.get();
+		}
+
+		Limiter.Listener listener = acquired.get();
+		try {
+			T result = call.get();
+			if (Thread.currentThread().isInterrupted()) {
+				listener.onDropped();
+				dropped.increment();
+			} else {
+				listener.onSuccess();
+				succeeded.increment();
+			}
+			return result;
+		} catch (RuntimeException | Error e) {
+			if (isTimeout(e) || Thread.currentThread().isInterrupted()) {
+				listener.onDropped();
+				dropped.increment();
+			} else {
+				listener.onIgnore();
+				failed.increment();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Whether the failure, or one of its causes, is a timeout or an interrupt.
+	 */
+	static boolean isTimeout(Throwable failure) {
+		for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+			if (cause instanceof TimeoutException || cause instanceof QueryTimeoutException
+					|| cause instanceof SQLTimeoutException || cause instanceof InterruptedIOException
+					|| cause instanceof InterruptedException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public int getLimit() {
+		return limiter.getLimit();
+	}
+
+	public int getInflight() {
+		return limiter.getInflight();
+	}
+}
@@ -0,0 +1,93 @@
+package com.cristian.licenses.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collapses concurrent calls for the same key into a single call. The first
+ * thread asking for a key runs the call, every thread asking for the same key
+ * while that call is in flight waits for it and gets the same result or the
+ * same exception. Once the call completes the key is released, so the next
+ * request goes out again.
+ *
+ * The threads sharing a call wait for it at most waitTimeoutMs, so a hung call
+ * only holds its own thread; the others fail with an IllegalStateException.
+ * The wait should be a bit longer than the timeouts of the call itself.
+ *
+ * Counters are published as {name}.calls with outcome=executed for the calls
+ * that really went out, outcome=coalesced for the calls that were collapsed
+ * into an in-flight one and outcome=wait_timeout for the collapsed calls that
+ * gave up waiting.
+ */
+public class SingleFlight<K, V> {
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final Counter executed;
+	private final Counter coalesced;
+	private final Counter waitTimeouts;
+	private final long waitTimeoutMs;
+
+	public SingleFlight(String name, long waitTimeoutMs, MeterRegistry meterRegistry) {
+		this.waitTimeoutMs = waitTimeoutMs;
+		this.executed = Counter.builder(name + ".calls").tag("outcome", "executed")
+				.description("Calls that were executed").register(meterRegistry);
+		this.coalesced = Counter.builder(name + ".calls").tag("outcome", "coalesced")
+				.description("Calls that shared an in-flight call for the same key").register(meterRegistry);
+		this.waitTimeouts = Counter.builder(name + ".calls").tag("outcome", "wait_timeout")
+				.description("Calls that gave up waiting for an in-flight call for the same key").register(meterRegistry);
+	}
+
+	public V execute(K key, Function<K, V> call) {
+		CompletableFuture<V> ownCall = new CompletableFuture<>();
+		CompletableFuture<V> existingCall = inFlight.putIfAbsent(key, ownCall);
+
+		if (existingCall != null) {
+			coalesced.increment();
+			return await(existingCall);
+		}
+
+		executed.increment();
+		try {
+			V value = call.apply(key);
+			ownCall.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			ownCall.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, ownCall);
+		}
+	}
+
+	public int inFlightCount() {
+		return inFlight.size();
+	}
+
+	private V await(CompletableFuture<V> call) {
+		try {
+			return call.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			waitTimeouts.increment();
+			throw new IllegalStateException("Timed out after " + waitTimeoutMs + "ms waiting for an in-flight call", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for an in-flight call", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+}
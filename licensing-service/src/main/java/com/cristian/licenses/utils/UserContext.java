@@ -1,56 +1,50 @@
 package com.cristian.licenses.utils;
 
-import org.springframework.stereotype.Component;
-
 /**
  * The UserContext class is used to hold the HTTP header values for an individual 
  * service client request being processed by your microservice. 
- * It consists of a getter/setter method that retrieves and stores values 
- * from java.lang.ThreadLocal .
+ * It is stored in a java.lang.ThreadLocal by the UserContextHolder.
+ *
+ * A UserContext is an immutable snapshot of the request headers: it is built
+ * once by the UserContextFilter and the same instance can then be shared with
+ * any thread working on the request without copying it. Missing headers are
+ * kept as empty strings, and EMPTY is used when no request is being processed.
  * @author bit5
  */
-@Component
-public class UserContext {
+public final class UserContext {
 	public static final String CORRELATION_ID = "tmx-correlation-id";
 	public static final String AUTH_TOKEN = "tmx-auth-token";
 	public static final String USER_ID = "tmx-user-id";
 	public static final String ORG_ID = "tmx-org-id";
 
-	private String correlationId = new String();
-	private String authToken = new String();
-	private String userId = new String();
-	private String orgId = new String();
+	public static final UserContext EMPTY = new UserContext("", "", "", "");
 
-	public String getCorrelationId() {
-		return correlationId;
+	private final String correlationId;
+	private final String authToken;
+	private final String userId;
+	private final String orgId;
+
+	public UserContext(String correlationId, String authToken, String userId, String orgId) {
+		this.correlationId = correlationId == null ? "" : correlationId;
+		this.authToken = authToken == null ? "" : authToken;
+		this.userId = userId == null ? "" : userId;
+		this.orgId = orgId == null ? "" : orgId;
 	}
 
-	public void setCorrelationId(String correlationId) {
-		this.correlationId = correlationId;
+	public String getCorrelationId() {
+		return correlationId;
 	}
 
 	public String getAuthToken() {
 		return authToken;
 	}
 
-	public void setAuthToken(String authToken) {
-		this.authToken = authToken;
-	}
-
 	public String getUserId() {
 		return userId;
 	}
 
-	public void setUserId(String userId) {
-		this.userId = userId;
-	}
-
 	public String getOrgId() {
 		return orgId;
 	}
 
-	public void setOrgId(String orgId) {
-		this.orgId = orgId;
-	}
-
 }
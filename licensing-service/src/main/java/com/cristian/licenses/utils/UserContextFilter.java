@@ -40,14 +40,20 @@ public class UserContextFilter implements Filter {
 
         HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
 
-        UserContextHolder.getContext().setCorrelationId(  httpServletRequest.getHeader(UserContext.CORRELATION_ID) );
-        UserContextHolder.getContext().setUserId(httpServletRequest.getHeader(UserContext.USER_ID));
-        UserContextHolder.getContext().setAuthToken(httpServletRequest.getHeader(UserContext.AUTH_TOKEN));
-        UserContextHolder.getContext().setOrgId(httpServletRequest.getHeader(UserContext.ORG_ID));
+        UserContextHolder.setContext(new UserContext(
+                httpServletRequest.getHeader(UserContext.CORRELATION_ID),
+                httpServletRequest.getHeader(UserContext.AUTH_TOKEN),
+                httpServletRequest.getHeader(UserContext.USER_ID),
+                httpServletRequest.getHeader(UserContext.ORG_ID)));
 
         logger.debug("UserContextFilter Correlation id: {}", UserContextHolder.getContext().getCorrelationId());
 
-        filterChain.doFilter(httpServletRequest, servletResponse);
+        // the servlet threads are pooled, don't leave the context behind for the next request
+        try {
+            filterChain.doFilter(httpServletRequest, servletResponse);
+        } finally {
+            UserContextHolder.clear();
+        }
     }
 
     @Override
@@ -7,6 +7,9 @@ import org.springframework.util.Assert;
  * ThreadLocal class. 
  * Once it’s stored in the ThreadLocal storage, any code that’s executed for 
  * a request will use the UserContext object stored in the UserContextHolder.
+ *
+ * Threads without a context get UserContext.EMPTY; nothing is allocated or
+ * stored in the ThreadLocal for them.
  */
 public class UserContextHolder {
 	
@@ -14,13 +17,7 @@ public class UserContextHolder {
 
 	public static final UserContext getContext() {
 		UserContext context = userContext.get();
-
-		if (context == null) {
-			context = createEmptyContext();
-			userContext.set(context);
-
-		}
-		return userContext.get();
+		return context == null ? UserContext.EMPTY : context;
 	}
 
 	public static final void setContext(UserContext context) {
@@ -28,7 +25,19 @@ public class UserContextHolder {
 		userContext.set(context);
 	}
 
-	public static final UserContext createEmptyContext() {
-		return new UserContext();
+	/**
+	 * Puts back a context previously returned by getContext(), removing the
+	 * ThreadLocal entry when that context was EMPTY.
+	 */
+	public static final void restoreContext(UserContext previous) {
+		if (previous == null || previous == UserContext.EMPTY) {
+			userContext.remove();
+		} else {
+			userContext.set(previous);
+		}
+	}
+
+	public static final void clear() {
+		userContext.remove();
 	}
 }
\ No newline at end of file
@@ -30,9 +30,14 @@ public class UserContextInterceptor implements ClientHttpRequestInterceptor {
 	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
 			throws IOException {
 
+		UserContext context = UserContextHolder.getContext();
 		HttpHeaders headers = request.getHeaders();
-		headers.add(UserContext.CORRELATION_ID, UserContextHolder.getContext().getCorrelationId());
-		headers.add(UserContext.AUTH_TOKEN, UserContextHolder.getContext().getAuthToken());
+		if (!context.getCorrelationId().isEmpty()) {
+			headers.add(UserContext.CORRELATION_ID, context.getCorrelationId());
+		}
+		if (!context.getAuthToken().isEmpty()) {
+			headers.add(UserContext.AUTH_TOKEN, context.getAuthToken());
+		}
 
 		return execution.execute(request, body);
 	}
@@ -0,0 +1,84 @@
+package com.cristian.licenses.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Carries the UserContext of the calling thread over to the thread that runs
+ * a task, for any async work of the service (the Hystrix threads use
+ * DelegatingUserContextCallable for the same purpose).
+ *
+ * The context is captured when the task is wrapped, set on the worker thread
+ * while the task runs and the previous context of the worker thread is put
+ * back afterwards, so pooled threads never keep the context of an earlier
+ * request. As the UserContext is immutable the capture is a single reference,
+ * the only allocation per hop is the wrapper itself.
+ */
+public final class UserContextPropagation {
+
+	private UserContextPropagation() {
+	}
+
+	public static Runnable wrap(Runnable task) {
+		UserContext context = UserContextHolder.getContext();
+		return () -> {
+			UserContext previous = UserContextHolder.getContext();
+			UserContextHolder.setContext(context);
+			try {
+				task.run();
+			} finally {
+				UserContextHolder.restoreContext(previous);
+			}
+		};
+	}
+
+	public static <T> Callable<T> wrap(Callable<T> task) {
+		UserContext context = UserContextHolder.getContext();
+		return () -> {
+			UserContext previous = UserContextHolder.getContext();
+			UserContextHolder.setContext(context);
+			try {
+				return task.call();
+			} finally {
+				UserContextHolder.restoreContext(previous);
+			}
+		};
+	}
+
+	public static <T> Supplier<T> wrap(Supplier<T> task) {
+		UserContext context = UserContextHolder.getContext();
+		return () -> {
+			UserContext previous = UserContextHolder.getContext();
+			UserContextHolder.setContext(context);
+			try {
+				return task.get();
+			} finally {
+				UserContextHolder.restoreContext(previous);
+			}
+		};
+	}
+
+	/**
+	 * Returns an Executor that propagates the context of the submitting thread
+	 * to every task it runs.
+	 */
+	public static Executor executor(Executor delegate) {
+		return task -> delegate.execute(wrap(task));
+	}
+
+	/**
+	 * CompletableFuture.supplyAsync with the UserContext of the calling thread.
+	 */
+	public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+		return CompletableFuture.supplyAsync(wrap(supplier), executor);
+	}
+
+	/**
+	 * CompletableFuture.runAsync with the UserContext of the calling thread.
+	 */
+	public static CompletableFuture<Void> runAsync(Runnable runnable, Executor executor) {
+		return CompletableFuture.runAsync(wrap(runnable), executor);
+	}
+}
@@ -1,5 +1,3 @@
-DROP TABLE IF EXISTS licenses;
-
 CREATE TABLE licenses (
   license_id        VARCHAR(100) PRIMARY KEY NOT NULL,
   organization_id   TEXT NOT NULL,
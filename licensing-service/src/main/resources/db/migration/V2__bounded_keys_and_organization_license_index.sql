@@ -0,0 +1,9 @@
+-- TEXT columns can't be indexed without a prefix length, bound the key and
+-- lookup columns so they can be part of an index.
+ALTER TABLE licenses MODIFY organization_id VARCHAR(100) NOT NULL;
+ALTER TABLE licenses MODIFY license_type VARCHAR(100) NOT NULL;
+ALTER TABLE licenses MODIFY product_name VARCHAR(255) NOT NULL;
+
+-- Covers findByOrganizationId (and its keyset pagination ordered by
+-- license_id) and findByOrganizationIdAndLicenseId.
+CREATE INDEX idx_licenses_organization_license ON licenses (organization_id, license_id);
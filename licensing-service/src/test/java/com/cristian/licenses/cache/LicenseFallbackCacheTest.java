@@ -0,0 +1,96 @@
+package com.cristian.licenses.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cristian.licenses.model.License;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LicenseFallbackCacheTest {
+	private final LicenseFallbackCache cache = new LicenseFallbackCache();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		ReflectionTestUtils.setField(cache, "maxSize", 10L);
+		ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+		ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+		cache.init();
+	}
+
+	@Test
+	void lastKnownGoodLicensesAreServedAsStaleCopies() {
+		License license = license("org-a", "l-1");
+		List<License> licenses = new ArrayList<>(Collections.singletonList(license));
+		cache.put("org-a", licenses);
+		licenses.clear();
+
+		List<License> stale = cache.getStale("org-a");
+		assertEquals(1, stale.size(), "the cache keeps its own copy of the list");
+		assertEquals("l-1", stale.get(0).getLicenseId());
+		assertEquals("CustomerPro", stale.get(0).getProductName());
+		assertTrue(stale.get(0).isStale());
+		assertFalse(license.isStale(), "the cached license itself is left untouched");
+
+		assertNull(cache.getStale("org-b"));
+	}
+
+	@Test
+	void organizationsServedStaleAreDrainedOnce() {
+		cache.put("org-a", Collections.singletonList(license("org-a", "l-1")));
+		cache.put("org-b", Collections.singletonList(license("org-b", "l-2")));
+		cache.getStale("org-a");
+		cache.getStale("org-b");
+		cache.getStale("org-c");
+
+		assertEquals(2, cache.drainServedStale().size(), "a miss is not served stale");
+		assertTrue(cache.drainServedStale().isEmpty());
+
+		// what could not be refreshed is put back for the next run
+		cache.markServedStale("org-a");
+		assertEquals(Collections.singleton("org-a"), cache.drainServedStale());
+
+		// a successful query is as good as a refresh
+		cache.getStale("org-b");
+		cache.put("org-b", Collections.singletonList(license("org-b", "l-2")));
+		assertTrue(cache.drainServedStale().isEmpty());
+	}
+
+	@Test
+	void writesEvictTheOrganization() {
+		cache.put("org-a", Collections.singletonList(license("org-a", "l-1")));
+		cache.put("org-b", Collections.singletonList(license("org-b", "l-2")));
+
+		cache.evict("org-a");
+		assertNull(cache.getStale("org-a"));
+		assertEquals(1, cache.getStale("org-b").size());
+
+		cache.evictAll();
+		assertNull(cache.getStale("org-b"));
+	}
+
+	@Test
+	void disabledCacheKeepsNothing() {
+		ReflectionTestUtils.setField(cache, "enabled", false);
+		cache.put("org-a", Collections.singletonList(license("org-a", "l-1")));
+
+		assertNull(cache.getStale("org-a"));
+		assertTrue(cache.drainServedStale().isEmpty());
+	}
+
+	private static License license(String organizationId, String licenseId) {
+		return new License().withId(licenseId).withOrganizationId(organizationId).withProductName("CustomerPro")
+				.withLicenseType("user");
+	}
+}
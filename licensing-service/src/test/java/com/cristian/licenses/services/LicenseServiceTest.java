@@ -0,0 +1,112 @@
+package com.cristian.licenses.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cristian.licenses.cache.LicenseFallbackCache;
+import com.cristian.licenses.config.ConcurrencyLimitProperties;
+import com.cristian.licenses.model.License;
+import com.cristian.licenses.repository.LicenseRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LicenseServiceTest {
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final LicenseRepository licenseRepository = mock(LicenseRepository.class);
+	private final LicenseFallbackCache fallbackCache = new LicenseFallbackCache();
+	private final LicenseService licenseService = new LicenseService();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(fallbackCache, "enabled", true);
+		ReflectionTestUtils.setField(fallbackCache, "maxSize", 10L);
+		ReflectionTestUtils.setField(fallbackCache, "ttlSeconds", 60L);
+		ReflectionTestUtils.setField(fallbackCache, "meterRegistry", meterRegistry);
+		fallbackCache.init();
+
+		ReflectionTestUtils.setField(licenseService, "licenseRepository", licenseRepository);
+		ReflectionTestUtils.setField(licenseService, "licenseFallbackCache", fallbackCache);
+		ReflectionTestUtils.setField(licenseService, "concurrencyLimitProperties", new ConcurrencyLimitProperties());
+		ReflectionTestUtils.setField(licenseService, "meterRegistry", meterRegistry);
+		licenseService.init();
+	}
+
+	@Test
+	void organizationsServedStaleAreRefreshed() {
+		fallbackCache.put("org-a", Collections.singletonList(license("org-a", "l-1")));
+		fallbackCache.put("org-b", Collections.singletonList(license("org-b", "l-2")));
+		fallbackCache.getStale("org-a");
+		fallbackCache.getStale("org-b");
+		when(licenseRepository.findByOrganizationId("org-a"))
+				.thenReturn(Collections.singletonList(license("org-a", "l-3")));
+		when(licenseRepository.findByOrganizationId("org-b")).thenReturn(Collections.emptyList());
+
+		licenseService.refreshStaleLicenses();
+
+		assertTrue(fallbackCache.drainServedStale().isEmpty(), "both organizations were refreshed");
+		assertEquals("l-3", fallbackCache.getStale("org-a").get(0).getLicenseId());
+		assertTrue(fallbackCache.getStale("org-b").isEmpty());
+	}
+
+	@Test
+	void organizationsNotRefreshedAreRetriedOnTheNextRun() {
+		fallbackCache.put("org-a", Collections.singletonList(license("org-a", "l-1")));
+		fallbackCache.getStale("org-a");
+		when(licenseRepository.findByOrganizationId("org-a")).thenThrow(new QueryTimeoutException("timeout"));
+
+		licenseService.refreshStaleLicenses();
+
+		assertEquals(Collections.singleton("org-a"), fallbackCache.drainServedStale());
+		assertEquals("l-1", fallbackCache.getStale("org-a").get(0).getLicenseId(), "the failed refresh keeps the entry");
+	}
+
+	@Test
+	void nothingIsQueriedWhenNoOrganizationWasServedStale() {
+		fallbackCache.put("org-a", Collections.singletonList(license("org-a", "l-1")));
+
+		licenseService.refreshStaleLicenses();
+
+		verify(licenseRepository, never()).findByOrganizationId("org-a");
+	}
+
+	@Test
+	void writesEvictTheFallbackOfTheOrganization() {
+		fallbackCache.put("org-a", Collections.singletonList(license("org-a", "l-1")));
+		fallbackCache.put("org-b", Collections.singletonList(license("org-b", "l-2")));
+
+		licenseService.saveLicense(license("org-a", null));
+		assertNull(fallbackCache.getStale("org-a"), "a fallback would miss the new license");
+		assertFalse(fallbackCache.getStale("org-b").isEmpty());
+
+		fallbackCache.put("org-a", Collections.singletonList(license("org-a", "l-1")));
+		licenseService.updateLicense(license("org-a", "l-1"));
+		assertNull(fallbackCache.getStale("org-a"));
+
+		fallbackCache.put("org-a", Collections.singletonList(license("org-a", "l-1")));
+		licenseService.deleteLicense(license("org-a", "l-1"));
+		assertNull(fallbackCache.getStale("org-a"), "a fallback would still have the deleted license");
+
+		// the organization of the license is not known, so every organization is evicted
+		licenseService.deleteLicense(new License().withId("l-2"));
+		assertNull(fallbackCache.getStale("org-b"));
+	}
+
+	private static License license(String organizationId, String licenseId) {
+		return new License().withId(licenseId).withOrganizationId(organizationId).withProductName("CustomerPro")
+				.withLicenseType("user");
+	}
+}
@@ -0,0 +1,64 @@
+package com.cristian.licenses.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.netflix.concurrency.limits.limit.AIMDLimit;
+import com.netflix.concurrency.limits.limit.FixedLimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConcurrencyLimiterTest {
+
+	@Test
+	void callsOverTheLimitAreRejectedWithoutRunning() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", FixedLimit.of(1), registry);
+
+		String result = limiter.execute(() -> limiter.execute(() -> "inner", () -> "rejected"), () -> "outer-rejected");
+
+		assertEquals("rejected", result);
+		assertEquals(0, limiter.getInflight());
+		assertEquals(1.0, registry.get("test.calls").tag("outcome", "success").counter().count());
+		assertEquals(1.0, registry.get("test.calls").tag("outcome", "rejected").counter().count());
+		assertEquals(1.0, registry.get("test.limit").gauge().value());
+	}
+
+	@Test
+	void failedCallsReleaseTheirSlot() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", FixedLimit.of(1), registry);
+
+		assertThrows(IllegalStateException.class, () -> limiter.execute(() -> {
+			throw new IllegalStateException("query failed");
+		}, () -> "rejected"));
+
+		assertEquals("value", limiter.execute(() -> "value", () -> "rejected"));
+		assertEquals(1.0, registry.get("test.calls").tag("outcome", "failed").counter().count());
+	}
+
+	@Test
+	void timeoutsLowerTheLimitWhileBusinessErrorsDoNot() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", AIMDLimit.newBuilder().initialLimit(20)
+				.minLimit(1).maxLimit(100).backoffRatio(0.5).timeout(10, TimeUnit.SECONDS).build(), registry);
+
+		assertThrows(IllegalArgumentException.class, () -> limiter.execute(() -> {
+			throw new IllegalArgumentException("unknown organization");
+		}, () -> "rejected"));
+		assertEquals(20, limiter.getLimit());
+
+		assertThrows(QueryTimeoutException.class, () -> limiter.execute(() -> {
+			throw new QueryTimeoutException("query timed out");
+		}, () -> "rejected"));
+		assertEquals(10, limiter.getLimit());
+		assertEquals(1.0, registry.get("test.calls").tag("outcome", "dropped").counter().count());
+		assertEquals(1.0, registry.get("test.calls").tag("outcome", "failed").counter().count());
+	}
+}
@@ -0,0 +1,102 @@
+package com.cristian.licenses.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+	@Test
+	void concurrentCallsForTheSameKeyShareOneExecution() throws Exception {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 5000, registry);
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		int callers = 8;
+
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				results.add(executor.submit(() -> singleFlight.execute("org", key -> {
+					executions.incrementAndGet();
+					await(release);
+					return "value-" + key;
+				})));
+			}
+
+			while (registry.get("test.calls").tag("outcome", "coalesced").counter().count() < callers - 1) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("value-org", result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, executions.get());
+		assertEquals(1, registry.get("test.calls").tag("outcome", "executed").counter().count());
+		assertEquals(0, singleFlight.inFlightCount());
+	}
+
+	@Test
+	void errorsAreRethrownAndTheKeyIsReleased() {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 5000, new SimpleMeterRegistry());
+
+		assertThrows(IllegalArgumentException.class, () -> singleFlight.execute("org", key -> {
+			throw new IllegalArgumentException("boom");
+		}));
+
+		assertEquals("ok", singleFlight.execute("org", key -> "ok"));
+	}
+
+	@Test
+	void callersStopWaitingForAHungCall() throws Exception {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 50, registry);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> leader = executor.submit(() -> singleFlight.execute("org", key -> {
+				started.countDown();
+				await(release);
+				return "value";
+			}));
+			started.await(5, TimeUnit.SECONDS);
+
+			assertThrows(IllegalStateException.class, () -> singleFlight.execute("org", key -> "not called"));
+			assertEquals(1, registry.get("test.calls").tag("outcome", "wait_timeout").counter().count());
+
+			release.countDown();
+			assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
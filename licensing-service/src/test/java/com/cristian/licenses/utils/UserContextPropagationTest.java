@@ -0,0 +1,82 @@
+package com.cristian.licenses.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class UserContextPropagationTest {
+	private static final UserContext REQUEST = new UserContext("correlation-1", "token", "user", "org-a");
+
+	// a single thread, so every task runs on the thread used by the one before
+	private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdownNow();
+		UserContextHolder.clear();
+	}
+
+	@Test
+	void wrappedTasksSeeTheContextOfTheCaller() throws Exception {
+		UserContextHolder.setContext(REQUEST);
+
+		assertSame(REQUEST, pool.submit(UserContextPropagation.wrap(currentContext())).get(5, TimeUnit.SECONDS));
+		assertSame(REQUEST, UserContextPropagation.supplyAsync(UserContextHolder::getContext, pool).get(5,
+				TimeUnit.SECONDS));
+
+		AtomicReference<UserContext> seen = new AtomicReference<>();
+		UserContextPropagation.runAsync(() -> seen.set(UserContextHolder.getContext()), pool).get(5,
+				TimeUnit.SECONDS);
+		assertSame(REQUEST, seen.get());
+
+		assertSame(REQUEST, CompletableFuture.supplyAsync(UserContextHolder::getContext,
+				UserContextPropagation.executor(pool)).get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void pooledThreadDoesNotKeepTheContextOfAnEarlierTask() throws Exception {
+		UserContextHolder.setContext(REQUEST);
+		UserContextPropagation.runAsync(() -> {
+		}, pool).get(5, TimeUnit.SECONDS);
+
+		assertSame(UserContext.EMPTY, pool.submit(currentContext()).get(5, TimeUnit.SECONDS),
+				"the context is cleared once the task is done");
+		assertEquals("correlation-1", UserContextHolder.getContext().getCorrelationId(),
+				"the caller keeps its own context");
+	}
+
+	@Test
+	void contextOfTheWorkerThreadIsRestored() throws Exception {
+		UserContext worker = new UserContext("correlation-2", "", "", "org-b");
+		pool.submit(() -> UserContextHolder.setContext(worker)).get(5, TimeUnit.SECONDS);
+
+		UserContextHolder.setContext(REQUEST);
+		assertSame(REQUEST, pool.submit(UserContextPropagation.wrap(currentContext())).get(5, TimeUnit.SECONDS));
+
+		assertSame(worker, pool.submit(currentContext()).get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void contextIsRestoredWhenTheTaskFails() throws Exception {
+		UserContextHolder.setContext(REQUEST);
+		Runnable failing = UserContextPropagation.wrap((Runnable) () -> {
+			throw new IllegalStateException("boom");
+		});
+		pool.submit(failing);
+
+		assertSame(UserContext.EMPTY, pool.submit(currentContext()).get(5, TimeUnit.SECONDS));
+	}
+
+	private static Callable<UserContext> currentContext() {
+		return UserContextHolder::getContext;
+	}
+}
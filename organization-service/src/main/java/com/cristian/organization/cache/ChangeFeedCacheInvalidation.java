@@ -0,0 +1,90 @@
+package com.cristian.organization.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.cristian.organization.model.OrganizationChange;
+import com.cristian.organization.repository.OrganizationChangeRepository;
+
+/**
+ * Invalidation across instances through the organization change feed: every
+ * invalidation-poll-interval-ms the changes after the last one seen are read
+ * and their organizations handed to the listeners, so a change made by
+ * another instance is evicted here within about one interval. The changes of
+ * this instance are also evicted right away on publish.
+ *
+ * Polling starts with the first subscriber, from the last sequence at that
+ * time.
+ */
+@Component
+@ConditionalOnProperty(name = "organization.cache.invalidation", havingValue = "change-feed", matchIfMissing = true)
+public class ChangeFeedCacheInvalidation implements OrganizationCacheInvalidation {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedCacheInvalidation.class);
+    private static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    private OrganizationChangeRepository changeRepository;
+
+    @Value("${organization.cache.invalidation-poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private volatile long lastSequence;
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public void publish(String organizationId) {
+        listeners.forEach(listener -> listener.accept(organizationId));
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+        if (scheduler == null) {
+            lastSequence = changeRepository.findLastSequence();
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "organization-cache-invalidation");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void poll() {
+        try {
+            List<OrganizationChange> changes;
+            do {
+                changes = changeRepository.findBySequenceGreaterThanOrderBySequenceAsc(lastSequence,
+                        PageRequest.of(0, PAGE_SIZE));
+                for (OrganizationChange change : changes) {
+                    publish(change.getOrganizationId());
+                    lastSequence = change.getSequence();
+                }
+            } while (changes.size() == PAGE_SIZE);
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the organization changes after {}", lastSequence, e);
+        }
+    }
+}
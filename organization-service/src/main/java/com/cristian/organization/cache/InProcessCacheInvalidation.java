@@ -0,0 +1,28 @@
+package com.cristian.organization.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidation within this instance only, for tests and single instance
+ * deployments.
+ */
+@Component
+@ConditionalOnProperty(name = "organization.cache.invalidation", havingValue = "in-process")
+public class InProcessCacheInvalidation implements OrganizationCacheInvalidation {
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String organizationId) {
+        listeners.forEach(listener -> listener.accept(organizationId));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,126 @@
+package com.cristian.organization.cache;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.cristian.organization.model.Organization;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Optional, bounded cache of the organizations read by
+ * OrganizationService.getOrg, off by default (organization.cache.enabled).
+ *
+ * Saves, updates and deletes evict the organization once their transaction
+ * commits, on this instance and, through the OrganizationCacheInvalidation,
+ * on the others. A load and an eviction of the same organization don't
+ * overlap, so a value read before a change is never cached after its
+ * eviction; the time to live bounds what a missed eviction could leave
+ * behind. Unknown organizations are not cached, their lookups count as
+ * load failures in the statistics.
+ *
+ * Hit, miss and eviction counts are published to the actuator metrics
+ * endpoint under the "organizations" cache name, and through the
+ * organizationcache actuator endpoint.
+ */
+@Component
+public class OrganizationCache {
+    public static final String CACHE_NAME = "organizations";
+
+    private static final Logger logger = LoggerFactory.getLogger(OrganizationCache.class);
+
+    @Value("${organization.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${organization.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${organization.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Autowired
+    private OrganizationCacheInvalidation invalidation;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, Organization> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        if (enabled) {
+            invalidation.subscribe(this::invalidate);
+        }
+        logger.debug("Organization cache enabled: {}, max size: {}, ttl: {}s, invalidation: {}", enabled, maxSize,
+                ttlSeconds, invalidation.getClass().getSimpleName());
+    }
+
+    public Optional<Organization> get(String organizationId, Function<String, Optional<Organization>> loader) {
+        if (!enabled) {
+            return loader.apply(organizationId);
+        }
+        return Optional.ofNullable(cache.get(organizationId, id -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * Evicts the organization once the current transaction commits, or right
+     * away outside of a transaction.
+     */
+    public void evictAfterCommit(String organizationId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    invalidation.publish(organizationId);
+                }
+            });
+        } else {
+            invalidation.publish(organizationId);
+        }
+    }
+
+    public void invalidate(String organizationId) {
+        cache.invalidate(organizationId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
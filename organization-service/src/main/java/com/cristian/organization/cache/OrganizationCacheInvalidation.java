@@ -0,0 +1,20 @@
+package com.cristian.organization.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel the OrganizationCache of every instance learns about changed
+ * organizations through. The implementation is picked with
+ * organization.cache.invalidation: change-feed (ChangeFeedCacheInvalidation)
+ * or in-process (InProcessCacheInvalidation).
+ */
+public interface OrganizationCacheInvalidation {
+
+    /**
+     * Announces that the organization changed, called once the change has
+     * committed. The listeners of this instance are called right away.
+     */
+    void publish(String organizationId);
+
+    void subscribe(Consumer<String> listener);
+}
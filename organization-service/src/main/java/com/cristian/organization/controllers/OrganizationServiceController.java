@@ -1,17 +1,29 @@
 package com.cristian.organization.controllers;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.cristian.organization.model.Organization;
+import com.cristian.organization.model.OrganizationChangePage;
+import com.cristian.organization.services.OrganizationChangeFeed;
 import com.cristian.organization.services.OrganizationService;
 
 @RestController
@@ -20,10 +32,58 @@ public class OrganizationServiceController {
     @Autowired
     private OrganizationService orgService;
 
+    @Autowired
+    private OrganizationChangeFeed changeFeed;
+
+
+    /**
+     * Batch read used by callers that need to resolve many organizations at
+     * once, e.g. GET v1/organizations/?ids=id1,id2. All the organizations are
+     * loaded with a single query, unknown ids are left out of the result.
+     */
+    @RequestMapping(value="/",method = RequestMethod.GET)
+    public List<Organization> getOrganizations( @RequestParam("ids") Set<String> organizationIds) {
+        return orgService.getOrgs(organizationIds);
+    }
+
+    /**
+     * Long poll of the change feed, e.g. GET v1/organizations/changes?after=42.
+     * Returns the changes after the given sequence, waiting up to timeoutMs
+     * for one when there is none yet; the next poll asks for the changes
+     * after the lastSequence of the response. timeoutMs is capped by
+     * organization.changes.max-timeout-ms, which stays below the socket timeout
+     * of the organizationchanges route of the gateway. The pages are sent with
+     * Cache-Control: no-store, so the gateway response cache never keeps one
+     * (an empty page served from it would hide the changes until it expires).
+     */
+    @RequestMapping(value="/changes",method = RequestMethod.GET)
+    public DeferredResult<OrganizationChangePage> getChanges( @RequestParam(value="after", defaultValue="0") long after,
+            @RequestParam(value="limit", defaultValue="100") int limit,
+            @RequestParam(value="timeoutMs", defaultValue="20000") long timeoutMs, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        return changeFeed.poll(after, limit, timeoutMs);
+    }
 
+    /**
+     * The response carries a strong ETag made of the organization version. An
+     * If-None-Match is checked against the version column alone, so a client
+     * holding the current copy gets a 304 without the organization being
+     * loaded or serialized. Weak ETags (W/"3", as sent back by clients of the
+     * gateway compression) match as well.
+     */
     @RequestMapping(value="/{organizationId}",method = RequestMethod.GET)
-    public Optional<Organization> getOrganization( @PathVariable("organizationId") String organizationId) {
-        return orgService.getOrg(organizationId);
+    public ResponseEntity<Organization> getOrganization( @PathVariable("organizationId") String organizationId, WebRequest request) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            Optional<Long> version = orgService.getOrgVersion(organizationId);
+            if (version.isPresent() && matches(ifNoneMatch, etag(version.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag(version.get())).build();
+            }
+        }
+
+        Optional<Organization> org = orgService.getOrg(organizationId);
+        return org.map(o -> ResponseEntity.ok().eTag(etag(o.getVersion())).body(o))
+                .orElseGet(() -> ResponseEntity.ok().build());
     }
 
     @RequestMapping(value="/{organizationId}",method = RequestMethod.PUT)
@@ -41,4 +101,25 @@ public class OrganizationServiceController {
     public void deleteOrganization( @PathVariable("orgId") String orgId,  @RequestBody Organization org) {
         orgService.deleteOrg( org );
     }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Weak comparison of an If-None-Match header (a list of ETags, or *) with
+     * the given ETag.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
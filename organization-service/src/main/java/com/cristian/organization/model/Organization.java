@@ -5,6 +5,8 @@ import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Entity
 @Table(name = "organizations")
 public class Organization {
@@ -24,6 +26,14 @@ public class Organization {
     @Column(name = "contact_phone", nullable = false)
     String contactPhone;
 
+    /**
+     * Bumped by OrganizationService.updateOrg, sent as the ETag instead of
+     * being part of the body.
+     */
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    long version;
+
 
     public String getId() {
         return id;
@@ -66,5 +76,13 @@ public class Organization {
         this.contactPhone = contactPhone;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
 
 }
\ No newline at end of file
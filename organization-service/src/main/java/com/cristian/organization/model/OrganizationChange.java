@@ -0,0 +1,80 @@
+package com.cristian.organization.model;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Entry of the organization change feed. The rows are written by
+ * OrganizationChangeRepository.insertChange, the entity is only read.
+ */
+@Entity
+@Table(name = "organization_changes")
+public class OrganizationChange {
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    @Column(name = "change_sequence", nullable = false)
+    long sequence;
+
+    @Column(name = "organization_id", nullable = false)
+    String organizationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    Type type;
+
+    @Column(name = "version", nullable = false)
+    long version;
+
+    @Column(name = "changed_at", nullable = false, insertable = false, updatable = false)
+    Instant changedAt;
+
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getOrganizationId() {
+        return organizationId;
+    }
+
+    public void setOrganizationId(String organizationId) {
+        this.organizationId = organizationId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+}
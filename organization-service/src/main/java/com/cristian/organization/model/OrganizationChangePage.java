@@ -0,0 +1,26 @@
+package com.cristian.organization.model;
+
+import java.util.List;
+
+/**
+ * Changes returned by a poll of the change feed. lastSequence is the
+ * sequence of the last change, or the requested one when there is none, and
+ * is what the next poll asks for the changes after.
+ */
+public class OrganizationChangePage {
+    private final List<OrganizationChange> changes;
+    private final long lastSequence;
+
+    public OrganizationChangePage(List<OrganizationChange> changes, long after) {
+        this.changes = changes;
+        this.lastSequence = changes.isEmpty() ? after : changes.get(changes.size() - 1).getSequence();
+    }
+
+    public List<OrganizationChange> getChanges() {
+        return changes;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+}
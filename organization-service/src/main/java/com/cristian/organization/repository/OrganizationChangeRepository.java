@@ -0,0 +1,35 @@
+package com.cristian.organization.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.cristian.organization.model.OrganizationChange;
+
+@Repository
+public interface OrganizationChangeRepository extends CrudRepository<OrganizationChange, Long> {
+    public List<OrganizationChange> findBySequenceGreaterThanOrderBySequenceAsc(long sequence, Pageable pageable);
+
+    @Query("select coalesce(max(c.sequence), 0) from OrganizationChange c")
+    public long findLastSequence();
+
+    /**
+     * Takes the next change sequence, read back by insertChange through
+     * LAST_INSERT_ID() on the same connection. The counter row stays locked
+     * until the transaction ends.
+     */
+    @Modifying
+    @Query(value = "UPDATE organization_change_sequence SET value = LAST_INSERT_ID(value + 1)", nativeQuery = true)
+    public int nextSequence();
+
+    @Modifying
+    @Query(value = "INSERT INTO organization_changes (change_sequence, organization_id, change_type, version) "
+            + "VALUES (LAST_INSERT_ID(), :organizationId, :changeType, :version)", nativeQuery = true)
+    public int insertChange(@Param("organizationId") String organizationId, @Param("changeType") String changeType,
+            @Param("version") long version);
+}
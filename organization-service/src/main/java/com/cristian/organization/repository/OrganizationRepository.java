@@ -1,6 +1,9 @@
 package com.cristian.organization.repository;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.cristian.organization.model.Organization;
@@ -10,4 +13,11 @@ import java.util.Optional;
 @Repository
 public interface OrganizationRepository extends CrudRepository<Organization, String>  {
     public Optional<Organization> findById(String organizationId);
+
+    @Query("select o.version from Organization o where o.id = :organizationId")
+    public Optional<Long> findVersionById(@Param("organizationId") String organizationId);
+
+    @Modifying
+    @Query("update Organization o set o.version = o.version + 1 where o.id = :organizationId")
+    public int incrementVersion(@Param("organizationId") String organizationId);
 }
@@ -0,0 +1,159 @@
+package com.cristian.organization.services;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.cristian.organization.model.OrganizationChange;
+import com.cristian.organization.model.OrganizationChangePage;
+import com.cristian.organization.repository.OrganizationChangeRepository;
+
+/**
+ * Change feed of the organizations. Every save, update and delete records a
+ * change with the next value of the change sequence in the same transaction
+ * (see OrganizationService), so consumers can keep a copy of the
+ * organizations in sync by asking for the changes after the last sequence
+ * they have seen instead of re-reading every organization.
+ *
+ * A poll with nothing to return is parked until a change arrives or its
+ * timeout expires. The parked polls are woken right after a change of this
+ * instance commits, and every poll-interval-ms the last sequence is checked
+ * for the changes made by the other instances.
+ */
+@Component
+public class OrganizationChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(OrganizationChangeFeed.class);
+
+    @Autowired
+    private OrganizationChangeRepository changeRepository;
+
+    @Value("${organization.changes.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    @Value("${organization.changes.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${organization.changes.max-timeout-ms:30000}")
+    private long maxTimeoutMs;
+
+    private final Set<Poll> polls = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "organization-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::completePolls, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Records a change of the organization, must run in the transaction that
+     * makes it.
+     */
+    public void record(String organizationId, OrganizationChange.Type type, long version) {
+        changeRepository.nextSequence();
+        changeRepository.insertChange(organizationId, type.name(), version);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    scheduler.execute(OrganizationChangeFeed.this::completePolls);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns up to limit changes after the given sequence. When there is none
+     * the result is set once a change arrives, or to an empty page after
+     * timeoutMs.
+     */
+    public DeferredResult<OrganizationChangePage> poll(long after, int limit, long timeoutMs) {
+        int pageSize = Math.max(1, Math.min(limit, maxLimit));
+        long timeout = Math.max(0, Math.min(timeoutMs, maxTimeoutMs));
+        OrganizationChangePage empty = new OrganizationChangePage(Collections.emptyList(), after);
+        DeferredResult<OrganizationChangePage> result = new DeferredResult<>(timeout, empty);
+
+        List<OrganizationChange> changes = changesAfter(after, pageSize);
+        if (!changes.isEmpty() || timeout == 0) {
+            result.setResult(new OrganizationChangePage(changes, after));
+            return result;
+        }
+
+        // a change committed right after the query is picked up by the next check
+        Poll poll = new Poll(after, pageSize, result);
+        result.onCompletion(() -> polls.remove(poll));
+        polls.add(poll);
+        return result;
+    }
+
+    public int parkedPolls() {
+        return polls.size();
+    }
+
+    void completePolls() {
+        if (polls.isEmpty()) {
+            return;
+        }
+
+        try {
+            long lastSequence = changeRepository.findLastSequence();
+            Map<Long, List<OrganizationChange>> changesByAfter = new HashMap<>();
+            for (Poll poll : polls) {
+                if (poll.after < lastSequence) {
+                    List<OrganizationChange> changes = changesByAfter.computeIfAbsent(poll.after,
+                            after -> changesAfter(after, maxLimit));
+                    poll.result.setResult(new OrganizationChangePage(
+                            changes.subList(0, Math.min(changes.size(), poll.pageSize)), poll.after));
+                    polls.remove(poll);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not check the organization changes", e);
+        }
+    }
+
+    private List<OrganizationChange> changesAfter(long after, int pageSize) {
+        return changeRepository.findBySequenceGreaterThanOrderBySequenceAsc(after, PageRequest.of(0, pageSize));
+    }
+
+    private static final class Poll {
+        final long after;
+        final int pageSize;
+        final DeferredResult<OrganizationChangePage> result;
+
+        Poll(long after, int pageSize, DeferredResult<OrganizationChangePage> result) {
+            this.after = after;
+            this.pageSize = pageSize;
+            this.result = result;
+        }
+    }
+}
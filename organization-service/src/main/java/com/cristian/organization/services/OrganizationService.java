@@ -1,12 +1,18 @@
 package com.cristian.organization.services;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.cristian.organization.cache.OrganizationCache;
 import com.cristian.organization.model.Organization;
+import com.cristian.organization.model.OrganizationChange;
 import com.cristian.organization.repository.OrganizationRepository;
 
 @Service
@@ -14,22 +20,57 @@ public class OrganizationService {
     @Autowired
     private OrganizationRepository orgRepository;
 
+    @Autowired
+    private OrganizationChangeFeed changeFeed;
+
+    @Autowired
+    private OrganizationCache organizationCache;
+
     public Optional<Organization> getOrg(String organizationId) {
-        return orgRepository.findById(organizationId);
+        return organizationCache.get(organizationId, orgRepository::findById);
     }
 
+    /**
+     * Current version of the organization, read without loading the entity.
+     */
+    public Optional<Long> getOrgVersion(String organizationId) {
+        return orgRepository.findVersionById(organizationId);
+    }
+
+    public List<Organization> getOrgs(Set<String> organizationIds) {
+        List<Organization> organizations = new ArrayList<>();
+        orgRepository.findAllById(organizationIds).forEach(organizations::add);
+        return organizations;
+    }
+
+    @Transactional
     public void saveOrg(Organization org){
         org.setId( UUID.randomUUID().toString());
 
         orgRepository.save(org);
-
+        changeFeed.record(org.getId(), OrganizationChange.Type.CREATED, org.getVersion());
+        organizationCache.evictAfterCommit(org.getId());
     }
 
+    /**
+     * The version is bumped in place first, which locks the row until the
+     * update commits, so concurrent updates never end up with the same version.
+     */
+    @Transactional
     public void updateOrg(Organization org){
+        boolean existed = orgRepository.incrementVersion(org.getId()) > 0;
+        org.setVersion(orgRepository.findVersionById(org.getId()).orElse(0L));
         orgRepository.save(org);
+        changeFeed.record(org.getId(), existed ? OrganizationChange.Type.UPDATED : OrganizationChange.Type.CREATED,
+                org.getVersion());
+        organizationCache.evictAfterCommit(org.getId());
     }
 
+    @Transactional
     public void deleteOrg(Organization org){
+        long version = orgRepository.findVersionById(org.getId()).orElse(0L);
         orgRepository.deleteById( org.getId());
+        changeFeed.record(org.getId(), OrganizationChange.Type.DELETED, version);
+        organizationCache.evictAfterCommit(org.getId());
     }
 }
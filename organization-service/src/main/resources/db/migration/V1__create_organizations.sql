@@ -1,5 +1,3 @@
-DROP TABLE IF EXISTS organizations;
-
 CREATE TABLE organizations (
   organization_id        VARCHAR(100) PRIMARY KEY NOT NULL,
   name                   TEXT NOT NULL,
@@ -0,0 +1,6 @@
+-- Bound the organization columns, TEXT columns are stored off-page and can't
+-- be indexed without a prefix length.
+ALTER TABLE organizations MODIFY name VARCHAR(255) NOT NULL;
+ALTER TABLE organizations MODIFY contact_name VARCHAR(255) NOT NULL;
+ALTER TABLE organizations MODIFY contact_email VARCHAR(255) NOT NULL;
+ALTER TABLE organizations MODIFY contact_phone VARCHAR(50) NOT NULL;
@@ -0,0 +1,4 @@
+-- Version of the organization, bumped on every update. The ETag of the
+-- organization resources is built from it, so a conditional GET can be
+-- answered without loading the row.
+ALTER TABLE organizations ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Change feed of the organizations, one row per save, update or delete in
+-- change_sequence order (see OrganizationChangeFeed).
+CREATE TABLE organization_changes (
+  change_sequence        BIGINT PRIMARY KEY NOT NULL,
+  organization_id        VARCHAR(100) NOT NULL,
+  change_type            VARCHAR(10) NOT NULL,
+  version                BIGINT NOT NULL,
+  changed_at             TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3));
+
+-- Single row counter of the change sequence. Taking the next value locks the
+-- row until the writing transaction commits, so the changes become visible in
+-- sequence order and a reader of the changes after N never skips one.
+CREATE TABLE organization_change_sequence (
+  value                  BIGINT NOT NULL);
+
+INSERT INTO organization_change_sequence (value) VALUES (0);
@@ -0,0 +1,58 @@
+package com.cristian.organization.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cristian.organization.model.Organization;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrganizationCacheTest {
+	private static final String ORG_ID = "442adb6e-fa58-47f3-9ca2-ed1fecdfe86c";
+
+	private final InProcessCacheInvalidation invalidation = new InProcessCacheInvalidation();
+	private final OrganizationCache organizationCache = new OrganizationCache();
+	private final AtomicInteger loads = new AtomicInteger();
+	private final Function<String, Optional<Organization>> loader = id -> {
+		loads.incrementAndGet();
+		Organization org = new Organization();
+		org.setId(id);
+		return Optional.of(org);
+	};
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(organizationCache, "enabled", true);
+		ReflectionTestUtils.setField(organizationCache, "maxSize", 100L);
+		ReflectionTestUtils.setField(organizationCache, "ttlSeconds", 300L);
+		ReflectionTestUtils.setField(organizationCache, "invalidation", invalidation);
+		ReflectionTestUtils.setField(organizationCache, "meterRegistry", new SimpleMeterRegistry());
+		organizationCache.init();
+	}
+
+	@Test
+	void readsAreServedFromTheCacheUntilTheOrganizationChanges() {
+		organizationCache.get(ORG_ID, loader);
+		organizationCache.get(ORG_ID, loader);
+		assertEquals(1, loads.get());
+		assertEquals(1, organizationCache.stats().hitCount());
+
+		organizationCache.evictAfterCommit(ORG_ID);
+		organizationCache.get(ORG_ID, loader);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void unknownOrganizationsAreNotCached() {
+		assertFalse(organizationCache.get("unknown", id -> Optional.empty()).isPresent());
+		assertEquals(0, organizationCache.size());
+	}
+}
@@ -0,0 +1,90 @@
+package com.cristian.organization.controllers;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.cristian.organization.model.Organization;
+import com.cristian.organization.services.OrganizationChangeFeed;
+import com.cristian.organization.services.OrganizationService;
+
+@WebMvcTest(OrganizationServiceController.class)
+class OrganizationServiceControllerTest {
+	private static final String ORG_ID = "442adb6e-fa58-47f3-9ca2-ed1fecdfe86c";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@MockBean
+	private OrganizationService orgService;
+
+	@MockBean
+	private OrganizationChangeFeed changeFeed;
+
+	@Test
+	void matchingETagIsAnsweredWithoutLoadingTheOrganization() throws Exception {
+		when(orgService.getOrgVersion(ORG_ID)).thenReturn(Optional.of(3L));
+
+		mvc.perform(get("/v1/organizations/{id}", ORG_ID).header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().stringValues(HttpHeaders.ETAG, "\"3\""));
+
+		verify(orgService, never()).getOrg(anyString());
+	}
+
+	@Test
+	void staleETagGetsTheOrganizationWithItsCurrentETag() throws Exception {
+		Organization org = new Organization();
+		org.setId(ORG_ID);
+		org.setName("HR-PowerSuite");
+		org.setVersion(4L);
+		when(orgService.getOrgVersion(ORG_ID)).thenReturn(Optional.of(4L));
+		when(orgService.getOrg(ORG_ID)).thenReturn(Optional.of(org));
+
+		mvc.perform(get("/v1/organizations/{id}", ORG_ID).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+				.andExpect(status().isOk())
+				.andExpect(header().stringValues(HttpHeaders.ETAG, "\"4\""))
+				.andExpect(jsonPath("$.name").value("HR-PowerSuite"))
+				.andExpect(jsonPath("$.version").doesNotExist());
+	}
+
+	@Test
+	void etagIsTheOneOfTheOrganizationReturned() throws Exception {
+		Organization org = new Organization();
+		org.setId(ORG_ID);
+		org.setName("HR-PowerSuite");
+		org.setVersion(5L);
+		// updated between the version check and the read
+		when(orgService.getOrgVersion(ORG_ID)).thenReturn(Optional.of(4L));
+		when(orgService.getOrg(ORG_ID)).thenReturn(Optional.of(org));
+
+		mvc.perform(get("/v1/organizations/{id}", ORG_ID).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+				.andExpect(status().isOk())
+				.andExpect(header().stringValues(HttpHeaders.ETAG, "\"5\""));
+	}
+
+	@Test
+	void changesAreNeverCached() throws Exception {
+		when(changeFeed.poll(42L, 100, 20000L)).thenReturn(new DeferredResult<>());
+
+		mvc.perform(get("/v1/organizations/changes").param("after", "42"))
+				.andExpect(request().asyncStarted())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+	}
+}
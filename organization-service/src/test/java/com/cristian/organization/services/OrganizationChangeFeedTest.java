@@ -0,0 +1,121 @@
+package com.cristian.organization.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.cristian.organization.model.OrganizationChange;
+import com.cristian.organization.model.OrganizationChangePage;
+import com.cristian.organization.repository.OrganizationChangeRepository;
+
+class OrganizationChangeFeedTest {
+	private final OrganizationChangeRepository changeRepository = mock(OrganizationChangeRepository.class);
+	private final OrganizationChangeFeed changeFeed = new OrganizationChangeFeed();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(changeFeed, "changeRepository", changeRepository);
+		ReflectionTestUtils.setField(changeFeed, "pollIntervalMs", 60000L);
+		ReflectionTestUtils.setField(changeFeed, "maxLimit", 1000);
+		ReflectionTestUtils.setField(changeFeed, "maxTimeoutMs", 60000L);
+		changeFeed.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		changeFeed.shutdown();
+	}
+
+	@Test
+	void pollWithoutChangesIsParkedUntilOneArrives() {
+		when(changeRepository.findBySequenceGreaterThanOrderBySequenceAsc(eq(7L), any(Pageable.class)))
+				.thenReturn(Collections.emptyList());
+		DeferredResult<OrganizationChangePage> result = changeFeed.poll(7, 100, 20000);
+		assertFalse(result.hasResult());
+		assertEquals(1, changeFeed.parkedPolls());
+
+		when(changeRepository.findLastSequence()).thenReturn(8L);
+		when(changeRepository.findBySequenceGreaterThanOrderBySequenceAsc(eq(7L), any(Pageable.class)))
+				.thenReturn(Collections.singletonList(change(8)));
+		changeFeed.completePolls();
+
+		assertTrue(result.hasResult());
+		OrganizationChangePage page = (OrganizationChangePage) result.getResult();
+		assertEquals(8L, page.getLastSequence());
+		assertEquals(0, changeFeed.parkedPolls());
+	}
+
+	@Test
+	void pendingChangesAreReturnedRightAway() {
+		List<OrganizationChange> changes = Arrays.asList(change(3), change(4));
+		when(changeRepository.findBySequenceGreaterThanOrderBySequenceAsc(eq(2L), any(Pageable.class)))
+				.thenReturn(changes);
+
+		DeferredResult<OrganizationChangePage> result = changeFeed.poll(2, 100, 20000);
+
+		OrganizationChangePage page = (OrganizationChangePage) result.getResult();
+		assertEquals(2, page.getChanges().size());
+		assertEquals(4L, page.getLastSequence());
+		assertEquals(0, changeFeed.parkedPolls());
+	}
+
+	@Test
+	void recordedChangeWakesTheParkedPollsOnceCommitted() throws Exception {
+		when(changeRepository.findBySequenceGreaterThanOrderBySequenceAsc(eq(7L), any(Pageable.class)))
+				.thenReturn(Collections.emptyList());
+		DeferredResult<OrganizationChangePage> result = changeFeed.poll(7, 100, 20000);
+		assertEquals(1, changeFeed.parkedPolls());
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			changeFeed.record("442adb6e-fa58-47f3-9ca2-ed1fecdfe86c", OrganizationChange.Type.UPDATED, 4);
+
+			InOrder inOrder = inOrder(changeRepository);
+			inOrder.verify(changeRepository).nextSequence();
+			inOrder.verify(changeRepository).insertChange("442adb6e-fa58-47f3-9ca2-ed1fecdfe86c", "UPDATED", 4);
+			assertFalse(result.hasResult(), "the change isn't visible before the commit");
+
+			when(changeRepository.findLastSequence()).thenReturn(8L);
+			when(changeRepository.findBySequenceGreaterThanOrderBySequenceAsc(eq(7L), any(Pageable.class)))
+					.thenReturn(Collections.singletonList(change(8)));
+			TransactionSynchronizationUtils.triggerAfterCommit();
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		// woken by the scheduler thread, long before the next poll-interval-ms
+		for (int i = 0; i < 100 && !result.hasResult(); i++) {
+			Thread.sleep(10);
+		}
+		assertTrue(result.hasResult());
+		assertEquals(8L, ((OrganizationChangePage) result.getResult()).getLastSequence());
+		assertEquals(0, changeFeed.parkedPolls());
+	}
+
+	private static OrganizationChange change(long sequence) {
+		OrganizationChange change = new OrganizationChange();
+		change.setSequence(sequence);
+		change.setOrganizationId("442adb6e-fa58-47f3-9ca2-ed1fecdfe86c");
+		change.setType(OrganizationChange.Type.UPDATED);
+		return change;
+	}
+}
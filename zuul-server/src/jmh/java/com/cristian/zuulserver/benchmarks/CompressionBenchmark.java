@@ -0,0 +1,78 @@
+package com.cristian.zuulserver.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cristian.zuulserver.compression.CompressionProperties;
+import com.cristian.zuulserver.compression.DeflaterPool;
+
+/**
+ * CPU cost of the gzip compression of a license list of about 64 KB by the
+ * CompressionFilter, per compression level and with or without the
+ * deflater pool (poolSize 0 creates a deflater per response).
+ *
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompressionBenchmark {
+
+	@Param({ "1", "6", "9" })
+	private int level;
+
+	@Param({ "64", "0" })
+	private int poolSize;
+
+	private byte[] body;
+	private byte[] out;
+	private DeflaterPool pool;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; json.length() < 64 * 1024; i++) {
+			json.append("{\"licenseId\":\"").append(i).append("\",\"organizationId\":\"442adb6e-fa58-47f3\",")
+					.append("\"productName\":\"CustomerPro\",\"licenseType\":\"user\",\"licenseMax\":").append(i % 100)
+					.append("},");
+		}
+		body = json.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+		out = new byte[8192];
+
+		CompressionProperties properties = new CompressionProperties();
+		properties.setLevel(level);
+		properties.setPoolSize(poolSize);
+		pool = new DeflaterPool(properties);
+	}
+
+	@Benchmark
+	public long gzip() throws IOException {
+		long size = 0;
+		try (InputStream in = pool.gzip(new ByteArrayInputStream(body))) {
+			int read;
+			while ((read = in.read(out)) != -1) {
+				size += read;
+			}
+		}
+		return size;
+	}
+}
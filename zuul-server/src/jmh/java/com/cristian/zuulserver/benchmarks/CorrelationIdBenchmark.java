@@ -0,0 +1,72 @@
+package com.cristian.zuulserver.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cristian.zuulserver.tracking.CorrelationIdGenerator;
+import com.cristian.zuulserver.tracking.UlidCorrelationIdGenerator;
+import com.cristian.zuulserver.tracking.UuidCorrelationIdGenerator;
+
+/**
+ * Cost of generating a correlation id in the TrackingFilter with the
+ * previous UUID.randomUUID() path and with the ULID style generator, with 1,
+ * 4 and 16 request threads generating ids at the same time.
+ *
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CorrelationIdBenchmark {
+	private final CorrelationIdGenerator uuid = new UuidCorrelationIdGenerator();
+	private final CorrelationIdGenerator ulid = new UlidCorrelationIdGenerator();
+
+	@Benchmark
+	@Threads(1)
+	public String uuid1Thread() {
+		return uuid.generate();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String uuid4Threads() {
+		return uuid.generate();
+	}
+
+	@Benchmark
+	@Threads(16)
+	public String uuid16Threads() {
+		return uuid.generate();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public String ulid1Thread() {
+		return ulid.generate();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String ulid4Threads() {
+		return ulid.generate();
+	}
+
+	@Benchmark
+	@Threads(16)
+	public String ulid16Threads() {
+		return ulid.generate();
+	}
+}
@@ -0,0 +1,49 @@
+package com.cristian.zuulserver.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cristian.zuulserver.metrics.GatewayLatencyMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of recording the latency of a request in the ResponseFilter, once the
+ * timers of the route exist. Run with -prof gc to check that the recording
+ * allocates nothing (gc.alloc.rate.norm).
+ *
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LatencyRecordingBenchmark {
+
+	private final GatewayLatencyMetrics metrics = new GatewayLatencyMetrics(new SimpleMeterRegistry(), 30000);
+
+	private long latency;
+
+	@Benchmark
+	public void endToEnd() {
+		metrics.recordEndToEnd("licensingservice", 200, 1_000_000 + (latency++ & 0xFFFFF));
+	}
+
+	@Benchmark
+	public void endToEndAndUpstream() {
+		long nanos = 1_000_000 + (latency++ & 0xFFFFF);
+		metrics.recordEndToEnd("licensingservice", 200, nanos);
+		metrics.recordUpstream("licensingservice", 200, nanos - 50_000);
+	}
+}
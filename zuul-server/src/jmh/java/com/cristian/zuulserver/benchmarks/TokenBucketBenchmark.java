@@ -0,0 +1,53 @@
+package com.cristian.zuulserver.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cristian.zuulserver.ratelimit.TokenBucket;
+
+/**
+ * Cost of taking a token in the RateLimitFilter, with 4 request threads
+ * hitting the bucket of a single organization (worst case, every thread
+ * competes for the same compare-and-set) and hitting one bucket per
+ * organization. The rate is high enough for every request to be allowed.
+ *
+ * Run with ./gradlew jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class TokenBucketBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class SharedBucket {
+		final TokenBucket bucket = new TokenBucket(1e9, 1_000_000, System.nanoTime());
+	}
+
+	@State(Scope.Thread)
+	public static class OwnBucket {
+		final TokenBucket bucket = new TokenBucket(1e9, 1_000_000, System.nanoTime());
+	}
+
+	@Benchmark
+	public long sameOrganization(SharedBucket state) {
+		return state.bucket.tryAcquire(System.nanoTime());
+	}
+
+	@Benchmark
+	public long organizationPerThread(OwnBucket state) {
+		return state.bucket.tryAcquire(System.nanoTime());
+	}
+}
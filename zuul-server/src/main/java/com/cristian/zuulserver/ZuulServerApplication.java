@@ -2,10 +2,14 @@ package com.cristian.zuulserver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.netflix.ribbon.RibbonClients;
 import org.springframework.cloud.netflix.zuul.EnableZuulProxy;
 
+import com.cristian.zuulserver.pool.RoutePoolConfiguration;
+
 @SpringBootApplication
 @EnableZuulProxy
+@RibbonClients(defaultConfiguration = RoutePoolConfiguration.class)
 public class ZuulServerApplication {
 
 	public static void main(String[] args) {
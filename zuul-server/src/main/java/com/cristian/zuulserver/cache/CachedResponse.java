@@ -0,0 +1,62 @@
+package com.cristian.zuulserver.cache;
+
+import java.util.List;
+
+import com.netflix.util.Pair;
+
+/**
+ * A response stored by the gateway response cache: status, the response
+ * headers Zuul would send, and the body exactly as received from the
+ * service (still gzipped when the service gzipped it).
+ */
+public class CachedResponse {
+	private final int status;
+	private final List<Pair<String, String>> headers;
+	private final byte[] body;
+	private final boolean gzipped;
+	private final String etag;
+	private final long ttlNanos;
+
+	public CachedResponse(int status, List<Pair<String, String>> headers, byte[] body, boolean gzipped, String etag,
+			long ttlNanos) {
+		this.status = status;
+		this.headers = headers;
+		this.body = body;
+		this.gzipped = gzipped;
+		this.etag = etag;
+		this.ttlNanos = ttlNanos;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public List<Pair<String, String>> getHeaders() {
+		return headers;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+	public boolean isGzipped() {
+		return gzipped;
+	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	public long getTtlNanos() {
+		return ttlNanos;
+	}
+
+	/** Approximate memory used by the entry, for the cache size bound. */
+	public int weight() {
+		int weight = body.length + 64;
+		for (Pair<String, String> header : headers) {
+			weight += 2 * (header.first().length() + header.second().length()) + 32;
+		}
+		return weight;
+	}
+}
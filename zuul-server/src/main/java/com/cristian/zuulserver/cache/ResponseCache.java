@@ -0,0 +1,109 @@
+package com.cristian.zuulserver.cache;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded store of the responses cached by the gateway, see
+ * ResponseCacheLookupFilter and ResponseCacheStoreFilter.
+ *
+ * Entries are weighed by their size and evicted once the cache holds more
+ * than gateway.response-cache.max-bytes; each entry expires after its own
+ * time to live. Hits and misses are published under the "gatewayResponses"
+ * cache name, the bytes served from the cache instead of the services under
+ * gateway.response.cache.bytes.saved, and the stats are available on the
+ * responsecache actuator endpoint.
+ */
+@Component
+public class ResponseCache {
+	public static final String CACHE_NAME = "gatewayResponses";
+
+	@Autowired
+	private ResponseCacheProperties properties;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Cache<String, CachedResponse> cache;
+	private Counter bytesSaved;
+
+	@PostConstruct
+	public void init() {
+		cache = Caffeine.newBuilder()
+				.maximumWeight(properties.getMaxBytes())
+				.weigher((String key, CachedResponse response) -> 2 * key.length() + response.weight())
+				.expireAfter(new Expiry<String, CachedResponse>() {
+					@Override
+					public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+						return response.getTtlNanos();
+					}
+
+					@Override
+					public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+							long currentDuration) {
+						return response.getTtlNanos();
+					}
+
+					@Override
+					public long expireAfterRead(String key, CachedResponse response, long currentTime,
+							long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.recordStats()
+				.build();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+		bytesSaved = Counter.builder("gateway.response.cache.bytes.saved").baseUnit("bytes")
+				.description("Response bytes served from the gateway cache").register(meterRegistry);
+		Gauge.builder("gateway.response.cache.weight", this, ResponseCache::weightedSize).baseUnit("bytes")
+				.description("Approximate memory used by the cached responses").register(meterRegistry);
+	}
+
+	/**
+	 * Returns the live response for the key or null, counting a hit or a miss.
+	 */
+	public CachedResponse get(String key) {
+		return cache.getIfPresent(key);
+	}
+
+	public void put(String key, CachedResponse response) {
+		cache.put(key, response);
+	}
+
+	public void recordBytesSaved(long bytes) {
+		bytesSaved.increment(bytes);
+	}
+
+	public double bytesSaved() {
+		return bytesSaved.count();
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public long size() {
+		return cache.estimatedSize();
+	}
+
+	public long weightedSize() {
+		return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+	}
+
+	public CacheStats stats() {
+		return cache.stats();
+	}
+}
@@ -0,0 +1,51 @@
+package com.cristian.zuulserver.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Actuator endpoint of the gateway response cache: GET
+ * /actuator/responsecache returns the hit ratio and the bytes saved, DELETE
+ * empties the cache.
+ */
+@Component
+@Endpoint(id = "responsecache")
+public class ResponseCacheEndpoint {
+
+	@Autowired
+	private ResponseCache responseCache;
+
+	@Autowired
+	private ResponseCacheProperties properties;
+
+	@ReadOperation
+	public Map<String, Object> stats() {
+		CacheStats stats = responseCache.stats();
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("enabled", properties.isEnabled());
+		result.put("routes", properties.getRoutes());
+		result.put("entries", responseCache.size());
+		result.put("weightBytes", responseCache.weightedSize());
+		result.put("maxBytes", properties.getMaxBytes());
+		result.put("hitCount", stats.hitCount());
+		result.put("missCount", stats.missCount());
+		result.put("hitRatio", stats.hitRate());
+		result.put("evictionCount", stats.evictionCount());
+		result.put("bytesSaved", (long) responseCache.bytesSaved());
+		return result;
+	}
+
+	@DeleteOperation
+	public void invalidateAll() {
+		responseCache.invalidateAll();
+	}
+}
@@ -0,0 +1,56 @@
+package com.cristian.zuulserver.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the gateway response cache.
+ *
+ * Only the routes listed in routes are cached, each with its own time to
+ * live in seconds, keyed by the Zuul route id (e.g. organizationservice).
+ * The cache holds at most maxBytes of responses, responses bigger than
+ * maxEntryBytes are never cached.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+	private boolean enabled = true;
+	private long maxBytes = 64 * 1024 * 1024;
+	private int maxEntryBytes = 256 * 1024;
+	private Map<String, Long> routes = new HashMap<>();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	public int getMaxEntryBytes() {
+		return maxEntryBytes;
+	}
+
+	public void setMaxEntryBytes(int maxEntryBytes) {
+		this.maxEntryBytes = maxEntryBytes;
+	}
+
+	public Map<String, Long> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(Map<String, Long> routes) {
+		this.routes = routes;
+	}
+}
@@ -0,0 +1,118 @@
+package com.cristian.zuulserver.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the source stream as it is read, so the response is never held
+ * in memory as a whole: the SendResponseFilter reads the compressed bytes
+ * from it and writes them to the client. For gzip the raw deflate data is
+ * framed with the gzip header and a trailer holding the CRC32 and the size
+ * of the content.
+ *
+ * The compressor goes back to the pool at the end of the stream or when the
+ * stream is closed, whichever comes first.
+ */
+class CompressingInputStream extends InputStream {
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+	private static final int GZIP_TRAILER_SIZE = 8;
+
+	private final InputStream source;
+	private final DeflaterPool pool;
+	private Compressor compressor;
+	private final CRC32 crc;
+
+	private int headerPos;
+	private byte[] trailer;
+	private int trailerPos;
+	private final byte[] single = new byte[1];
+
+	CompressingInputStream(InputStream source, Compressor compressor, DeflaterPool pool) {
+		this.source = source;
+		this.compressor = compressor;
+		this.pool = pool;
+		this.crc = compressor.gzip ? new CRC32() : null;
+		this.headerPos = compressor.gzip ? 0 : GZIP_HEADER.length;
+	}
+
+	@Override
+	public int read() throws IOException {
+		return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (headerPos < GZIP_HEADER.length) {
+			int n = Math.min(len, GZIP_HEADER.length - headerPos);
+			System.arraycopy(GZIP_HEADER, headerPos, b, off, n);
+			headerPos += n;
+			return n;
+		}
+
+		while (compressor != null) {
+			Deflater deflater = compressor.deflater;
+			if (deflater.finished()) {
+				if (crc != null) {
+					trailer = trailer(crc.getValue(), deflater.getBytesRead());
+				}
+				release();
+				break;
+			}
+			if (deflater.needsInput()) {
+				int read = source.read(compressor.buffer, 0, compressor.buffer.length);
+				if (read == -1) {
+					deflater.finish();
+				} else if (read > 0) {
+					if (crc != null) {
+						crc.update(compressor.buffer, 0, read);
+					}
+					deflater.setInput(compressor.buffer, 0, read);
+				}
+			}
+			int n = deflater.deflate(b, off, len);
+			if (n > 0) {
+				return n;
+			}
+		}
+
+		if (trailer != null && trailerPos < trailer.length) {
+			int n = Math.min(len, trailer.length - trailerPos);
+			System.arraycopy(trailer, trailerPos, b, off, n);
+			trailerPos += n;
+			return n;
+		}
+		return -1;
+	}
+
+	@Override
+	public void close() throws IOException {
+		release();
+		source.close();
+	}
+
+	private void release() {
+		if (compressor != null) {
+			pool.release(compressor);
+			compressor = null;
+		}
+	}
+
+	private static byte[] trailer(long crc, long size) {
+		byte[] trailer = new byte[GZIP_TRAILER_SIZE];
+		writeIntLE(trailer, 0, crc);
+		writeIntLE(trailer, 4, size);
+		return trailer;
+	}
+
+	private static void writeIntLE(byte[] b, int off, long value) {
+		b[off] = (byte) value;
+		b[off + 1] = (byte) (value >> 8);
+		b[off + 2] = (byte) (value >> 16);
+		b[off + 3] = (byte) (value >> 24);
+	}
+}
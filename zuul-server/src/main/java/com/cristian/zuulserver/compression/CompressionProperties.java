@@ -0,0 +1,77 @@
+package com.cristian.zuulserver.compression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the gateway response compression.
+ *
+ * Only responses of one of mimeTypes and of at least minResponseSize bytes
+ * are compressed. level is the zlib level, 1 (fastest) to 9 (smallest). Up
+ * to poolSize idle deflaters, each with a buffer of bufferSize bytes, are
+ * kept for reuse; 0 creates a new deflater for every response.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.compression")
+public class CompressionProperties {
+	private boolean enabled = true;
+	private int minResponseSize = 2048;
+	private int level = Deflater.DEFAULT_COMPRESSION;
+	private int poolSize = 64;
+	private int bufferSize = 8192;
+	private List<String> mimeTypes = new ArrayList<>(Arrays.asList("application/json", "application/xml",
+			"application/javascript", "text/html", "text/xml", "text/plain", "text/css", "text/javascript"));
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getMinResponseSize() {
+		return minResponseSize;
+	}
+
+	public void setMinResponseSize(int minResponseSize) {
+		this.minResponseSize = minResponseSize;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	public void setLevel(int level) {
+		this.level = level;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	public void setPoolSize(int poolSize) {
+		this.poolSize = poolSize;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	public List<String> getMimeTypes() {
+		return mimeTypes;
+	}
+
+	public void setMimeTypes(List<String> mimeTypes) {
+		this.mimeTypes = mimeTypes;
+	}
+}
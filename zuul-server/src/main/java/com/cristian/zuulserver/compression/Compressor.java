@@ -0,0 +1,21 @@
+package com.cristian.zuulserver.compression;
+
+import java.util.zip.Deflater;
+
+/**
+ * A deflater and its input buffer, borrowed from the DeflaterPool for the
+ * compression of one response. Creating a Deflater allocates a few hundred
+ * KB of native zlib memory, which is what the pool saves.
+ */
+final class Compressor {
+	final Deflater deflater;
+	final byte[] buffer;
+	final boolean gzip;
+
+	Compressor(int level, boolean gzip, int bufferSize) {
+		// gzip wraps raw deflate data in its own header and trailer, deflate is the zlib format
+		this.deflater = new Deflater(level, gzip);
+		this.buffer = new byte[bufferSize];
+		this.gzip = gzip;
+	}
+}
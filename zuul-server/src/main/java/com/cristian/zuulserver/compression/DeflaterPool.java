@@ -0,0 +1,87 @@
+package com.cristian.zuulserver.compression;
+
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Pool of the deflaters used to compress the responses, one pool for gzip
+ * and one for deflate. A deflater is borrowed when the compression of a
+ * response starts and given back, reset, once its stream is fully read or
+ * closed. When the pool is empty a new deflater is created, when it is full
+ * the returned deflater is ended, so at most pool-size idle deflaters are
+ * kept per encoding. The idle count is published as
+ * gateway.compression.pool.idle.
+ */
+@Component
+public class DeflaterPool {
+
+	@Autowired
+	private CompressionProperties properties;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private BlockingQueue<Compressor> gzipPool;
+	private BlockingQueue<Compressor> deflatePool;
+
+	public DeflaterPool() {
+	}
+
+	/** Pool outside of Spring, for the benchmarks and the tests. */
+	public DeflaterPool(CompressionProperties properties) {
+		this.properties = properties;
+		init();
+	}
+
+	@PostConstruct
+	public void init() {
+		int capacity = Math.max(1, properties.getPoolSize());
+		gzipPool = new ArrayBlockingQueue<>(capacity);
+		deflatePool = new ArrayBlockingQueue<>(capacity);
+
+		if (meterRegistry != null) {
+			Gauge.builder("gateway.compression.pool.idle", gzipPool, BlockingQueue::size).tag("encoding", "gzip")
+					.register(meterRegistry);
+			Gauge.builder("gateway.compression.pool.idle", deflatePool, BlockingQueue::size)
+					.tag("encoding", "deflate").register(meterRegistry);
+		}
+	}
+
+	/**
+	 * Returns a stream of the gzip (RFC 1952) compressed content of source.
+	 */
+	public InputStream gzip(InputStream source) {
+		return new CompressingInputStream(source, borrow(gzipPool, true), this);
+	}
+
+	/**
+	 * Returns a stream of the deflate (RFC 1950, zlib) compressed content of
+	 * source.
+	 */
+	public InputStream deflate(InputStream source) {
+		return new CompressingInputStream(source, borrow(deflatePool, false), this);
+	}
+
+	private Compressor borrow(BlockingQueue<Compressor> pool, boolean gzip) {
+		Compressor compressor = pool.poll();
+		return compressor != null ? compressor
+				: new Compressor(properties.getLevel(), gzip, properties.getBufferSize());
+	}
+
+	void release(Compressor compressor) {
+		compressor.deflater.reset();
+		BlockingQueue<Compressor> pool = compressor.gzip ? gzipPool : deflatePool;
+		if (properties.getPoolSize() <= 0 || !pool.offer(compressor)) {
+			compressor.deflater.end();
+		}
+	}
+}
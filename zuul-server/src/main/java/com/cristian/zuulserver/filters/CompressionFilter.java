@@ -0,0 +1,218 @@
+package com.cristian.zuulserver.filters;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ListIterator;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import com.cristian.zuulserver.compression.CompressionProperties;
+import com.cristian.zuulserver.compression.DeflaterPool;
+import com.netflix.util.Pair;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Post filter compressing the responses of the services with gzip or
+ * deflate, as negotiated with the Accept-Encoding of the client (gzip is
+ * preferred, an encoding with q=0 is refused). It runs after the
+ * ResponseCacheStoreFilter, so the cache keeps the plain responses and every
+ * client gets the encoding it asked for.
+ *
+ * Responses already encoded by the service, responses with a type other
+ * than gateway.compression.mime-types and responses smaller than
+ * gateway.compression.min-response-size are passed through unchanged. When
+ * the service did not send a Content-Length, the first min-response-size
+ * bytes are read to find out.
+ *
+ * A gzip response is flagged with setResponseGZipped so the
+ * SendResponseFilter sets its Content-Encoding, deflate sets the header
+ * itself. A strong ETag is turned into a weak one, as the compressed bytes
+ * differ from the ones it was computed on. Compressed responses are counted
+ * in gateway.compression.responses, tagged with the encoding.
+ */
+@Component
+public class CompressionFilter extends ZuulFilter {
+	private static final int FILTER_ORDER = FilterConstants.SEND_RESPONSE_FILTER_ORDER - 5;
+	static final String GZIP = "gzip";
+	static final String DEFLATE = "deflate";
+
+	@Autowired
+	private CompressionProperties properties;
+
+	@Autowired
+	private DeflaterPool deflaterPool;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Override
+	public String filterType() {
+		return FilterUtils.POST_FILTER_TYPE;
+	}
+
+	@Override
+	public int filterOrder() {
+		return FILTER_ORDER;
+	}
+
+	@Override
+	public boolean shouldFilter() {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		if (!properties.isEnabled() || ctx.getThrowable() != null || ctx.getResponseDataStream() == null
+				|| ctx.getResponseGZipped() || "HEAD".equals(ctx.getRequest().getMethod())) {
+			return false;
+		}
+
+		int status = ctx.getResponseStatusCode();
+		if (status == HttpStatus.NO_CONTENT.value() || status == HttpStatus.NOT_MODIFIED.value()) {
+			return false;
+		}
+		Long contentLength = ctx.getOriginContentLength();
+		if (contentLength != null && contentLength < properties.getMinResponseSize()) {
+			return false;
+		}
+		return responseHeader(ctx, HttpHeaders.CONTENT_ENCODING) == null
+				&& isCompressible(responseHeader(ctx, HttpHeaders.CONTENT_TYPE))
+				&& negotiate(ctx.getRequest().getHeader(HttpHeaders.ACCEPT_ENCODING)) != null;
+	}
+
+	@Override
+	public Object run() {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		InputStream body = ctx.getResponseDataStream();
+		if (ctx.getOriginContentLength() == null) {
+			try {
+				body = startIfBigEnough(ctx, body);
+			} catch (IOException e) {
+				ReflectionUtils.rethrowRuntimeException(e);
+			}
+			if (body == null) {
+				return null;
+			}
+		}
+
+		String encoding = negotiate(ctx.getRequest().getHeader(HttpHeaders.ACCEPT_ENCODING));
+		if (GZIP.equals(encoding)) {
+			ctx.setResponseDataStream(deflaterPool.gzip(body));
+			ctx.setResponseGZipped(true);
+		} else {
+			ctx.setResponseDataStream(deflaterPool.deflate(body));
+			ctx.addZuulResponseHeader(HttpHeaders.CONTENT_ENCODING, DEFLATE);
+		}
+		// the length of the compressed response is only known once it is written
+		ctx.setOriginContentLength((Long) null);
+		ctx.addZuulResponseHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		weakenEtag(ctx);
+
+		meterRegistry.counter("gateway.compression.responses", "encoding", encoding).increment();
+		return null;
+	}
+
+	/**
+	 * Reads up to min-response-size bytes of a response of unknown length.
+	 * Returns the whole body when it is big enough to be compressed, or null
+	 * after putting the bytes read back in the RequestContext.
+	 */
+	private InputStream startIfBigEnough(RequestContext ctx, InputStream body) throws IOException {
+		byte[] start = new byte[properties.getMinResponseSize()];
+		int length = 0;
+		int read;
+		while (length < start.length && (read = body.read(start, length, start.length - length)) != -1) {
+			length += read;
+		}
+
+		InputStream head = new ByteArrayInputStream(start, 0, length);
+		if (length < start.length) {
+			body.close();
+			ctx.setResponseDataStream(head);
+			return null;
+		}
+		return new SequenceInputStream(head, body);
+	}
+
+	private boolean isCompressible(String contentType) {
+		if (contentType == null) {
+			return false;
+		}
+		String type = contentType.toLowerCase(Locale.ROOT);
+		for (String mimeType : properties.getMimeTypes()) {
+			if (type.startsWith(mimeType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns gzip or deflate, whichever the Accept-Encoding allows with gzip
+	 * first, or null. Only encodings named explicitly count: with "*" the
+	 * SendResponseFilter would not recognize gzip as accepted and would
+	 * decompress the response again.
+	 */
+	static String negotiate(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return null;
+		}
+		boolean deflate = false;
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			String name = parts[0].trim().toLowerCase(Locale.ROOT);
+			if (!GZIP.equals(name) && !DEFLATE.equals(name) || isRefused(parts)) {
+				continue;
+			}
+			if (GZIP.equals(name)) {
+				return GZIP;
+			}
+			deflate = true;
+		}
+		return deflate ? DEFLATE : null;
+	}
+
+	private static boolean isRefused(String[] parameters) {
+		for (int i = 1; i < parameters.length; i++) {
+			String parameter = parameters[i].trim();
+			if (parameter.startsWith("q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2)) <= 0;
+				} catch (NumberFormatException e) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Replaces the ETag header rather than changing it in place, the header
+	 * objects may be shared with a cached response.
+	 */
+	private static void weakenEtag(RequestContext ctx) {
+		ListIterator<Pair<String, String>> headers = ctx.getZuulResponseHeaders().listIterator();
+		while (headers.hasNext()) {
+			Pair<String, String> header = headers.next();
+			if (header.first().equalsIgnoreCase(HttpHeaders.ETAG) && header.second().startsWith("\"")) {
+				headers.set(new Pair<>(header.first(), "W/" + header.second()));
+			}
+		}
+	}
+
+	private static String responseHeader(RequestContext ctx, String name) {
+		for (Pair<String, String> header : ctx.getZuulResponseHeaders()) {
+			if (header.first().equalsIgnoreCase(name)) {
+				return header.second();
+			}
+		}
+		return null;
+	}
+}
@@ -19,6 +19,8 @@ public class FilterUtils {
 	public static final String PRE_FILTER_TYPE = "pre";
 	public static final String POST_FILTER_TYPE = "post";
 	public static final String ROUTE_FILTER_TYPE = "route";
+	public static final String START_NANOS = "gatewayStartNanos";
+	public static final String UPSTREAM_START_NANOS = "gatewayUpstreamStartNanos";
 	
 	public String getCorrelationId() {
 		RequestContext ctx = RequestContext.getCurrentContext();
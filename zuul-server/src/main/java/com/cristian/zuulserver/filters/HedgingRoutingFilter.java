@@ -0,0 +1,419 @@
+package com.cristian.zuulserver.filters;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.netflix.ribbon.apache.RibbonLoadBalancingHttpClient;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import com.cristian.zuulserver.hedging.HedgingProperties;
+import com.cristian.zuulserver.hedging.RetryBudget;
+import com.cristian.zuulserver.hedging.UpstreamAttempt;
+import com.cristian.zuulserver.metrics.GatewayLatencyMetrics;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AbstractLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Route filter calling the service for the GET requests of the routes listed
+ * in gateway.hedging.routes, but not of their excluded-paths, in place of the
+ * RibbonRoutingFilter.
+ *
+ * The request goes to the instance chosen by the Ribbon load balancer of the
+ * service. If it hasn't answered after the hedge delay of the route, the
+ * same request is sent to another instance and the first answer wins, the
+ * other call is aborted. A call that fails or gets a server error is retried
+ * on an instance not tried yet, up to max-retries times. Hedges and retries
+ * take from the RetryBudget of the route, so during an outage they stop
+ * instead of multiplying the load.
+ *
+ * The calls use the Apache HttpClient and the timeouts of the Ribbon client
+ * of the service, so they share its connection pool, and are recorded in the
+ * Ribbon ServerStats of their instance. They don't run in the Hystrix command
+ * of the route: there is no Hystrix circuit breaker on the hedged routes.
+ * Instead the instances whose Ribbon circuit is tripped by connection
+ * failures are skipped, and the requests of a route being hedged at once are
+ * bounded by its max-concurrent-requests; above it the gateway answers 503,
+ * as the Hystrix semaphore would. When every thread of the filter is busy
+ * the request is left to the RibbonRoutingFilter. Calls are counted in
+ * gateway.upstream.attempts (tagged with route and type: primary, hedge or
+ * retry), hedges answering first in gateway.upstream.hedge.wins and extra
+ * calls denied by the budget in gateway.upstream.budget.exhausted.
+ */
+@Component
+public class HedgingRoutingFilter extends ZuulFilter {
+	private static final int FILTER_ORDER = FilterConstants.RIBBON_ROUTING_FILTER_ORDER - 1;
+	private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+	private static final Logger logger = LoggerFactory.getLogger(HedgingRoutingFilter.class);
+
+	@Autowired
+	private HedgingProperties properties;
+
+	@Autowired
+	private SpringClientFactory clientFactory;
+
+	@Autowired
+	private ProxyRequestHelper helper;
+
+	@Autowired
+	private GatewayLatencyMetrics latencyMetrics;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private ThreadPoolExecutor executor;
+
+	private final ConcurrentMap<String, RouteState> routes = new ConcurrentHashMap<>();
+
+	/** Budget, hedge delay and counters of a route. */
+	private class RouteState {
+		final HedgingProperties.Route settings;
+		final RetryBudget budget;
+		final Semaphore concurrentRequests;
+		final Counter primaries;
+		final Counter hedges;
+		final Counter retries;
+		final Counter hedgeWins;
+		final Counter budgetExhausted;
+		volatile long delayNanos;
+		volatile long refreshAt;
+
+		RouteState(String route, HedgingProperties.Route settings) {
+			this.settings = settings;
+			this.budget = new RetryBudget(settings.getBudgetRatio(), settings.getMinBudget());
+			this.concurrentRequests = new Semaphore(settings.getMaxConcurrentRequests());
+			this.primaries = meterRegistry.counter("gateway.upstream.attempts", "route", route, "type", "primary");
+			this.hedges = meterRegistry.counter("gateway.upstream.attempts", "route", route, "type", "hedge");
+			this.retries = meterRegistry.counter("gateway.upstream.attempts", "route", route, "type", "retry");
+			this.hedgeWins = meterRegistry.counter("gateway.upstream.hedge.wins", "route", route);
+			this.budgetExhausted = meterRegistry.counter("gateway.upstream.budget.exhausted", "route", route);
+			Gauge.builder("gateway.upstream.retry.budget", budget, RetryBudget::getBalance).tag("route", route)
+					.register(meterRegistry);
+			this.delayNanos = TimeUnit.MILLISECONDS.toNanos(settings.getMaxDelayMs());
+		}
+
+		long delayNanos(String route) {
+			long now = System.nanoTime();
+			if (now - refreshAt > 0) {
+				refreshAt = now + DELAY_REFRESH_NANOS;
+				long percentile = latencyMetrics.upstreamPercentileNanos(route, settings.getPercentile());
+				long min = TimeUnit.MILLISECONDS.toNanos(settings.getMinDelayMs());
+				long max = TimeUnit.MILLISECONDS.toNanos(settings.getMaxDelayMs());
+				delayNanos = percentile < 0 ? max : Math.max(min, Math.min(max, percentile));
+			}
+			return delayNanos;
+		}
+	}
+
+	@PostConstruct
+	public void init() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 60, TimeUnit.SECONDS,
+				new SynchronousQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "hedging-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Override
+	public String filterType() {
+		return FilterUtils.ROUTE_FILTER_TYPE;
+	}
+
+	@Override
+	public int filterOrder() {
+		return FILTER_ORDER;
+	}
+
+	@Override
+	public boolean shouldFilter() {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		if (!properties.isEnabled() || !ctx.sendZuulResponse() || ctx.getRouteHost() != null
+				|| ctx.get(FilterConstants.SERVICE_ID_KEY) == null || !"GET".equals(ctx.getRequest().getMethod())) {
+			return false;
+		}
+		HedgingProperties.Route settings = properties.getRoutes().get(route(ctx));
+		return settings != null && !isExcluded(settings, (String) ctx.get(FilterConstants.REQUEST_URI_KEY));
+	}
+
+	@Override
+	public Object run() throws ZuulException {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		String route = route(ctx);
+		String serviceId = (String) ctx.get(FilterConstants.SERVICE_ID_KEY);
+		RouteState state = routes.computeIfAbsent(route,
+				key -> new RouteState(key, properties.getRoutes().get(key)));
+		if (!state.concurrentRequests.tryAcquire()) {
+			throw new ZuulException("Too many concurrent requests for " + route,
+					HttpStatus.SERVICE_UNAVAILABLE.value(), "max-concurrent-requests reached");
+		}
+		try {
+			return hedge(ctx, route, serviceId, state);
+		} finally {
+			state.concurrentRequests.release();
+		}
+	}
+
+	private Object hedge(RequestContext ctx, String route, String serviceId, RouteState state)
+			throws ZuulException {
+		state.budget.deposit();
+
+		ILoadBalancer loadBalancer = clientFactory.getLoadBalancer(serviceId);
+		Server primary = loadBalancer == null ? null
+				: loadBalancer.chooseServer(ctx.get(FilterConstants.LOAD_BALANCER_KEY));
+		if (primary == null) {
+			// the RibbonRoutingFilter reports the missing instances
+			return null;
+		}
+
+		IClientConfig config = clientFactory.getClientConfig(serviceId);
+		RibbonLoadBalancingHttpClient client = clientFactory.getClient(serviceId,
+				RibbonLoadBalancingHttpClient.class);
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(config.get(CommonClientConfigKey.ConnectTimeout, 1000))
+				.setSocketTimeout(config.get(CommonClientConfigKey.ReadTimeout, 1000))
+				.build();
+		String scheme = config.get(CommonClientConfigKey.IsSecure, false) ? "https" : "http";
+		HttpServletRequest request = ctx.getRequest();
+		String pathAndQuery = helper.buildZuulRequestURI(request)
+				+ helper.getQueryString(helper.buildZuulRequestQueryParams(request));
+		MultiValueMap<String, String> headers = helper.buildZuulRequestHeaders(request);
+
+		List<UpstreamAttempt> attempts = new ArrayList<>(2);
+		List<Server> tried = new ArrayList<>(2);
+		CompletionService<UpstreamAttempt> completion = new ExecutorCompletionService<>(executor);
+		UpstreamAttempt primaryAttempt = new UpstreamAttempt(client.getDelegate(),
+				get(scheme, primary, pathAndQuery, headers, requestConfig), primary, stats(loadBalancer, primary),
+				UpstreamAttempt.Type.PRIMARY);
+		try {
+			completion.submit(primaryAttempt);
+		} catch (RejectedExecutionException e) {
+			logger.debug("No hedging thread left, {} routed by Ribbon", route);
+			return null;
+		}
+		state.primaries.increment();
+		attempts.add(primaryAttempt);
+		tried.add(primary);
+
+		UpstreamAttempt winner = null;
+		UpstreamAttempt lastFailure = null;
+		UpstreamAttempt result = null;
+		boolean hedged = false;
+		int retries = 0;
+		int inFlight = 1;
+		try {
+			while (inFlight > 0) {
+				Future<UpstreamAttempt> done = hedged ? completion.take()
+						: completion.poll(state.delayNanos(route), TimeUnit.NANOSECONDS);
+				if (done == null) {
+					hedged = true;
+					UpstreamAttempt hedge = submit(state, loadBalancer, tried, completion, UpstreamAttempt.Type.HEDGE,
+							scheme, pathAndQuery, headers, requestConfig, client);
+					if (hedge != null) {
+						attempts.add(hedge);
+						inFlight++;
+					}
+					continue;
+				}
+
+				inFlight--;
+				UpstreamAttempt attempt = done.get();
+				if (!attempt.isFailed()) {
+					winner = attempt;
+					break;
+				}
+				logger.debug("{} call to {} failed", attempt.getType(), attempt.getServer());
+				lastFailure = attempt;
+				if (retries < state.settings.getMaxRetries()) {
+					UpstreamAttempt retry = submit(state, loadBalancer, tried, completion,
+							UpstreamAttempt.Type.RETRY, scheme, pathAndQuery, headers, requestConfig, client);
+					if (retry != null) {
+						retries++;
+						attempts.add(retry);
+						inFlight++;
+					}
+				}
+			}
+			// with every call failed, the last server error of the service is passed on
+			result = winner != null ? winner : lastFailure;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// the attempts catch their own failures
+			throw new ZuulException(e.getCause(), HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
+		} finally {
+			for (UpstreamAttempt attempt : attempts) {
+				if (attempt != result) {
+					attempt.abandon();
+				}
+			}
+		}
+
+		if (result == null || result.getResponse() == null) {
+			Exception failure = result == null ? null : result.getFailure();
+			throw new ZuulException(failure, HttpStatus.GATEWAY_TIMEOUT.value(),
+					failure == null ? "interrupted" : failure.getMessage());
+		}
+		if (result.getType() == UpstreamAttempt.Type.HEDGE) {
+			state.hedgeWins.increment();
+		}
+		setResponse(ctx, result.getResponse());
+		// the response is in the RequestContext, the RibbonRoutingFilter must not call the service again
+		ctx.setSendZuulResponse(false);
+		return null;
+	}
+
+	private UpstreamAttempt submit(RouteState state, ILoadBalancer loadBalancer, List<Server> tried,
+			CompletionService<UpstreamAttempt> completion, UpstreamAttempt.Type type, String scheme,
+			String pathAndQuery, MultiValueMap<String, String> headers, RequestConfig requestConfig,
+			RibbonLoadBalancingHttpClient client) {
+		Server server = nextServer(loadBalancer, tried);
+		if (server == null) {
+			return null;
+		}
+		if (!state.budget.tryWithdraw()) {
+			state.budgetExhausted.increment();
+			return null;
+		}
+
+		UpstreamAttempt attempt = new UpstreamAttempt(client.getDelegate(),
+				get(scheme, server, pathAndQuery, headers, requestConfig), server, stats(loadBalancer, server), type);
+		try {
+			completion.submit(attempt);
+		} catch (RejectedExecutionException e) {
+			return null;
+		}
+		tried.add(server);
+		(type == UpstreamAttempt.Type.HEDGE ? state.hedges : state.retries).increment();
+		return attempt;
+	}
+
+	/**
+	 * Returns a reachable instance not tried yet and whose Ribbon circuit isn't
+	 * tripped, starting at a random one, or null when there is none left.
+	 */
+	private static Server nextServer(ILoadBalancer loadBalancer, List<Server> tried) {
+		List<Server> servers = loadBalancer.getReachableServers();
+		if (servers.isEmpty()) {
+			return null;
+		}
+		int start = ThreadLocalRandom.current().nextInt(servers.size());
+		for (int i = 0; i < servers.size(); i++) {
+			Server server = servers.get((start + i) % servers.size());
+			ServerStats stats = stats(loadBalancer, server);
+			if (!tried.contains(server) && (stats == null || !stats.isCircuitBreakerTripped())) {
+				return server;
+			}
+		}
+		return null;
+	}
+
+	private static ServerStats stats(ILoadBalancer loadBalancer, Server server) {
+		if (!(loadBalancer instanceof AbstractLoadBalancer)) {
+			return null;
+		}
+		return ((AbstractLoadBalancer) loadBalancer).getLoadBalancerStats().getSingleServerStat(server);
+	}
+
+	private static HttpGet get(String scheme, Server server, String pathAndQuery,
+			MultiValueMap<String, String> headers, RequestConfig requestConfig) {
+		HttpGet get = new HttpGet(URI.create(scheme + "://" + server.getHostPort() + pathAndQuery));
+		for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+			if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())
+					&& !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(header.getKey())) {
+				for (String value : header.getValue()) {
+					get.addHeader(header.getKey(), value);
+				}
+			}
+		}
+		get.setConfig(requestConfig);
+		return get;
+	}
+
+	private void setResponse(RequestContext ctx, CloseableHttpResponse response) throws ZuulException {
+		MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+		for (Header header : response.getAllHeaders()) {
+			headers.add(header.getName(), header.getValue());
+		}
+		HttpEntity entity = response.getEntity();
+		try {
+			// closed by the SendResponseFilter once the response is written
+			ctx.set("zuulResponse", response);
+			helper.setResponse(response.getStatusLine().getStatusCode(),
+					entity == null ? null : entity.getContent(), headers);
+		} catch (IOException e) {
+			throw new ZuulException(e, HttpStatus.BAD_GATEWAY.value(), e.getMessage());
+		}
+	}
+
+	private static boolean isExcluded(HedgingProperties.Route settings, String path) {
+		if (path == null) {
+			return false;
+		}
+		for (String pattern : settings.getExcludedPaths()) {
+			if (PATH_MATCHER.match(pattern, path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String route(RequestContext ctx) {
+		Object route = ctx.get(FilterConstants.PROXY_KEY);
+		return route == null ? "" : route.toString();
+	}
+}
@@ -0,0 +1,97 @@
+package com.cristian.zuulserver.filters;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.cristian.zuulserver.ratelimit.RateLimitProperties;
+import com.cristian.zuulserver.ratelimit.RateLimiter;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admission control per tenant: every organization (tmx-org-id, read
+ * through FilterUtils.getOrgId) gets its own token bucket on each route
+ * listed in gateway.rate-limit.routes, so a burst from one organization
+ * can't take the capacity of the services away from the others. Requests
+ * without an organization share one bucket per route.
+ *
+ * A limited request is answered right away with 429 Too Many Requests and a
+ * Retry-After header, without calling the service. The filter runs after the
+ * ResponseCacheLookupFilter, so cache hits are never limited. Rejections are
+ * counted in gateway.ratelimit.rejected, tagged with the route.
+ */
+@Component
+public class RateLimitFilter extends ZuulFilter {
+	private static final int FILTER_ORDER = FilterConstants.PRE_DECORATION_FILTER_ORDER + 2;
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+	@Autowired
+	FilterUtils filterUtils;
+
+	@Autowired
+	private RateLimiter rateLimiter;
+
+	@Autowired
+	private RateLimitProperties properties;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final ConcurrentMap<String, Counter> rejected = new ConcurrentHashMap<>();
+
+	@Override
+	public String filterType() {
+		return FilterUtils.PRE_FILTER_TYPE;
+	}
+
+	@Override
+	public int filterOrder() {
+		return FILTER_ORDER;
+	}
+
+	@Override
+	public boolean shouldFilter() {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		return properties.isEnabled() && ctx.sendZuulResponse() && rateLimiter.limitOf(route(ctx)) != null;
+	}
+
+	@Override
+	public Object run() {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		String route = route(ctx);
+		String orgId = filterUtils.getOrgId();
+
+		long waitNanos = rateLimiter.tryAcquire(route, rateLimiter.limitOf(route), orgId == null ? "" : orgId);
+		if (waitNanos == 0) {
+			return null;
+		}
+
+		logger.debug("Rate limit of {} reached for organization {}", route, orgId);
+		rejected.computeIfAbsent(route, key -> Counter.builder("gateway.ratelimit.rejected").tag("route", key)
+				.description("Requests rejected by the per tenant rate limit").register(meterRegistry)).increment();
+
+		long retryAfterSeconds = (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+		ctx.setSendZuulResponse(false);
+		ctx.setResponseStatusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+		ctx.addZuulResponseHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+		return null;
+	}
+
+	private String route(RequestContext ctx) {
+		Object route = ctx.get(FilterConstants.PROXY_KEY);
+		return route == null ? null : route.toString();
+	}
+}
@@ -0,0 +1,139 @@
+package com.cristian.zuulserver.filters;
+
+import java.io.ByteArrayInputStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.cristian.zuulserver.cache.CachedResponse;
+import com.cristian.zuulserver.cache.ResponseCache;
+import com.cristian.zuulserver.cache.ResponseCacheProperties;
+import com.netflix.util.Pair;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+/**
+ * Pre filter of the gateway response cache. It runs right after Zuul has
+ * resolved the route, for the GET requests of the routes that have a time to
+ * live in gateway.response-cache.routes.
+ *
+ * On a hit the cached response is put in the RequestContext and
+ * setSendZuulResponse(false) stops Zuul from calling the service; the
+ * SendResponseFilter then writes the cached response as if it came from the
+ * service. When the request has an If-None-Match matching the ETag of the
+ * cached response a 304 is sent instead. On a miss the cache key is left in
+ * the RequestContext for the ResponseCacheStoreFilter.
+ *
+ * The key is made of the route, the URI with its query string, the Accept
+ * header and the tenant headers (tmx-org-id, tmx-user-id and
+ * tmx-auth-token), so a response is never served to another tenant.
+ */
+@Component
+public class ResponseCacheLookupFilter extends ZuulFilter {
+	public static final String CACHE_HEADER = "X-Gateway-Cache";
+	static final String CACHE_KEY = "responseCacheKey";
+	static final String CACHE_TTL = "responseCacheTtlSeconds";
+
+	private static final int FILTER_ORDER = FilterConstants.PRE_DECORATION_FILTER_ORDER + 1;
+	private static final Logger logger = LoggerFactory.getLogger(ResponseCacheLookupFilter.class);
+
+	@Autowired
+	FilterUtils filterUtils;
+
+	@Autowired
+	private ResponseCache responseCache;
+
+	@Autowired
+	private ResponseCacheProperties properties;
+
+	@Override
+	public String filterType() {
+		return FilterUtils.PRE_FILTER_TYPE;
+	}
+
+	@Override
+	public int filterOrder() {
+		return FILTER_ORDER;
+	}
+
+	@Override
+	public boolean shouldFilter() {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		if (!properties.isEnabled() || !ctx.sendZuulResponse() || !"GET".equals(ctx.getRequest().getMethod())) {
+			return false;
+		}
+
+		Long ttl = routeTtl(ctx);
+		String cacheControl = ctx.getRequest().getHeader(HttpHeaders.CACHE_CONTROL);
+		return ttl != null && ttl > 0 && (cacheControl == null || !cacheControl.contains("no-store"));
+	}
+
+	@Override
+	public Object run() {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		HttpServletRequest request = ctx.getRequest();
+		String key = cacheKey(ctx);
+
+		// no-cache asks for a fresh response, which then replaces the cached one
+		String cacheControl = request.getHeader(HttpHeaders.CACHE_CONTROL);
+		CachedResponse cached = cacheControl != null && cacheControl.contains("no-cache") ? null
+				: responseCache.get(key);
+		if (cached == null) {
+			ctx.set(CACHE_KEY, key);
+			ctx.set(CACHE_TTL, routeTtl(ctx));
+			return null;
+		}
+
+		logger.debug("Serving {} from the gateway response cache", request.getRequestURI());
+		ctx.setSendZuulResponse(false);
+		ctx.addZuulResponseHeader(CACHE_HEADER, "HIT");
+		responseCache.recordBytesSaved(cached.getBody().length);
+
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+		if (cached.getEtag() != null && ifNoneMatch != null && ifNoneMatch.contains(cached.getEtag())) {
+			ctx.setResponseStatusCode(HttpStatus.NOT_MODIFIED.value());
+			ctx.addZuulResponseHeader(HttpHeaders.ETAG, cached.getEtag());
+			return null;
+		}
+
+		ctx.setResponseStatusCode(cached.getStatus());
+		for (Pair<String, String> header : cached.getHeaders()) {
+			ctx.addZuulResponseHeader(header.first(), header.second());
+		}
+		ctx.setResponseGZipped(cached.isGzipped());
+		ctx.setOriginContentLength((long) cached.getBody().length);
+		ctx.setResponseDataStream(new ByteArrayInputStream(cached.getBody()));
+		return null;
+	}
+
+	private Long routeTtl(RequestContext ctx) {
+		Object route = ctx.get(FilterConstants.PROXY_KEY);
+		return route == null ? null : properties.getRoutes().get(route.toString());
+	}
+
+	private String cacheKey(RequestContext ctx) {
+		HttpServletRequest request = ctx.getRequest();
+		StringBuilder key = new StringBuilder(128)
+				.append(ctx.get(FilterConstants.PROXY_KEY)).append(' ')
+				.append(request.getRequestURI());
+		if (request.getQueryString() != null) {
+			key.append('?').append(request.getQueryString());
+		}
+		return key.append('\n').append(nullToEmpty(request.getHeader(HttpHeaders.ACCEPT)))
+				.append('\n').append(nullToEmpty(filterUtils.getOrgId()))
+				.append('\n').append(nullToEmpty(filterUtils.getUserId()))
+				.append('\n').append(nullToEmpty(filterUtils.getAuthToken()))
+				.toString();
+	}
+
+	private static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+}
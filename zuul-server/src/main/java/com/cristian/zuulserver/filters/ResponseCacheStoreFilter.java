@@ -0,0 +1,170 @@
+package com.cristian.zuulserver.filters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import com.cristian.zuulserver.cache.CachedResponse;
+import com.cristian.zuulserver.cache.ResponseCache;
+import com.cristian.zuulserver.cache.ResponseCacheProperties;
+import com.netflix.util.Pair;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+/**
+ * Post filter of the gateway response cache: stores the 200 responses of the
+ * requests the ResponseCacheLookupFilter missed, just before the
+ * SendResponseFilter writes them to the client.
+ *
+ * The Cache-Control of the service is honored: no-store, no-cache and
+ * private responses are not cached and max-age shortens the time to live of
+ * the route. Responses setting cookies, varying on everything, marked stale
+ * with a Warning: 110 (e.g. the last known good licenses served by the
+ * licensing fallback) or bigger than gateway.response-cache.max-entry-bytes
+ * are not cached either.
+ */
+@Component
+public class ResponseCacheStoreFilter extends ZuulFilter {
+	private static final int FILTER_ORDER = FilterConstants.SEND_RESPONSE_FILTER_ORDER - 10;
+	private static final String MAX_AGE = "max-age=";
+	private static final String STALE_WARNING = "110";
+
+	@Autowired
+	private ResponseCache responseCache;
+
+	@Autowired
+	private ResponseCacheProperties properties;
+
+	@Override
+	public String filterType() {
+		return FilterUtils.POST_FILTER_TYPE;
+	}
+
+	@Override
+	public int filterOrder() {
+		return FILTER_ORDER;
+	}
+
+	@Override
+	public boolean shouldFilter() {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		return ctx.get(ResponseCacheLookupFilter.CACHE_KEY) != null && ctx.getThrowable() == null
+				&& ctx.getResponseStatusCode() == HttpStatus.OK.value() && ctx.getResponseDataStream() != null
+				&& !isStale(ctx.getZuulResponseHeaders());
+	}
+
+	@Override
+	public Object run() {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		// copies of the headers, the later filters may still change the ones of the response
+		List<Pair<String, String>> headers = new ArrayList<>(ctx.getZuulResponseHeaders().size());
+		for (Pair<String, String> header : ctx.getZuulResponseHeaders()) {
+			headers.add(new Pair<>(header.first(), header.second()));
+		}
+		ctx.addZuulResponseHeader(ResponseCacheLookupFilter.CACHE_HEADER, "MISS");
+
+		long ttlSeconds = ttlSeconds(headers, (Long) ctx.get(ResponseCacheLookupFilter.CACHE_TTL));
+		Long contentLength = ctx.getOriginContentLength();
+		if (ttlSeconds <= 0 || header(headers, HttpHeaders.SET_COOKIE) != null
+				|| "*".equals(header(headers, HttpHeaders.VARY))
+				|| (contentLength != null && contentLength > properties.getMaxEntryBytes())) {
+			return null;
+		}
+
+		byte[] body;
+		try {
+			body = readBody(ctx);
+		} catch (IOException e) {
+			ReflectionUtils.rethrowRuntimeException(e);
+			return null;
+		}
+		if (body != null) {
+			CachedResponse response = new CachedResponse(ctx.getResponseStatusCode(), headers, body,
+					ctx.getResponseGZipped(), header(headers, HttpHeaders.ETAG), TimeUnit.SECONDS.toNanos(ttlSeconds));
+			responseCache.put((String) ctx.get(ResponseCacheLookupFilter.CACHE_KEY), response);
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the response body so it can be cached, and puts it back in the
+	 * RequestContext for the SendResponseFilter. Returns null, leaving the rest
+	 * of the stream untouched, once the body gets bigger than max-entry-bytes.
+	 */
+	private byte[] readBody(RequestContext ctx) throws IOException {
+		InputStream in = ctx.getResponseDataStream();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+			if (out.size() > properties.getMaxEntryBytes()) {
+				ctx.setResponseDataStream(new SequenceInputStream(new ByteArrayInputStream(out.toByteArray()), in));
+				return null;
+			}
+		}
+		in.close();
+
+		byte[] body = out.toByteArray();
+		ctx.setResponseDataStream(new ByteArrayInputStream(body));
+		return body;
+	}
+
+	private long ttlSeconds(List<Pair<String, String>> headers, Long routeTtl) {
+		long ttl = routeTtl == null ? 0 : routeTtl;
+		String cacheControl = header(headers, HttpHeaders.CACHE_CONTROL);
+		if (cacheControl == null) {
+			return ttl;
+		}
+
+		cacheControl = cacheControl.toLowerCase(Locale.ROOT);
+		if (cacheControl.contains("no-store") || cacheControl.contains("no-cache")
+				|| cacheControl.contains("private")) {
+			return 0;
+		}
+		int maxAge = cacheControl.indexOf(MAX_AGE);
+		if (maxAge >= 0) {
+			int start = maxAge + MAX_AGE.length();
+			int end = start;
+			while (end < cacheControl.length() && Character.isDigit(cacheControl.charAt(end))) {
+				end++;
+			}
+			if (end > start) {
+				ttl = Math.min(ttl, Long.parseLong(cacheControl.substring(start, end)));
+			}
+		}
+		return ttl;
+	}
+
+	private static boolean isStale(List<Pair<String, String>> headers) {
+		for (Pair<String, String> header : headers) {
+			if (header.first().equalsIgnoreCase(HttpHeaders.WARNING)
+					&& header.second().trim().startsWith(STALE_WARNING)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String header(List<Pair<String, String>> headers, String name) {
+		for (Pair<String, String> header : headers) {
+			if (header.first().equalsIgnoreCase(name)) {
+				return header.second();
+			}
+		}
+		return null;
+	}
+}
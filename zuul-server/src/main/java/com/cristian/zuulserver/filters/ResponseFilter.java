@@ -5,8 +5,11 @@ import com.netflix.zuul.context.RequestContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
 import org.springframework.stereotype.Component;
 
+import com.cristian.zuulserver.metrics.GatewayLatencyMetrics;
+
 /**
  * Zuul executes the actual HTTP call on behalf of the service client. Zuul 
  * has the opportunity to inspect the response back from the target service call and then
@@ -18,6 +21,11 @@ import org.springframework.stereotype.Component;
  * post filter to inject the correlation ID back into the HTTP response headers 
  * being passed back to the caller of the service. This way, you can pass the 
  * correlation ID back to the caller without ever having to touch the message body.
+ * 
+ * Being the first post filter, it also records the end to end and upstream
+ * latency of the request in the GatewayLatencyMetrics. The body of the
+ * response is written afterwards by the SendResponseFilter, so for a
+ * streamed body the latency is the time to the response headers.
  * @author bit5
  *
  */
@@ -30,6 +38,9 @@ public class ResponseFilter extends ZuulFilter {
 	@Autowired
 	FilterUtils filterUtils;
 
+	@Autowired
+	GatewayLatencyMetrics latencyMetrics;
+
 	@Override
 	public String filterType() {
 		return FilterUtils.POST_FILTER_TYPE;
@@ -48,6 +59,7 @@ public class ResponseFilter extends ZuulFilter {
 	@Override
 	public Object run() {
 		RequestContext ctx = RequestContext.getCurrentContext();
+		recordLatency(ctx);
 
 		logger.debug("Adding the correlation id to the outbound headers. {}", filterUtils.getCorrelationId());
 		ctx.getResponse().addHeader(FilterUtils.CORRELATION_ID, filterUtils.getCorrelationId());
@@ -56,4 +68,20 @@ public class ResponseFilter extends ZuulFilter {
 
 		return null;
 	}
+
+	private void recordLatency(RequestContext ctx) {
+		long now = System.nanoTime();
+		Object route = ctx.get(FilterConstants.PROXY_KEY);
+		String routeId = route == null ? null : route.toString();
+		int status = ctx.getResponseStatusCode();
+
+		Object start = ctx.get(FilterUtils.START_NANOS);
+		if (start != null) {
+			latencyMetrics.recordEndToEnd(routeId, status, now - (Long) start);
+		}
+		Object upstreamStart = ctx.get(FilterUtils.UPSTREAM_START_NANOS);
+		if (upstreamStart != null) {
+			latencyMetrics.recordUpstream(routeId, status, now - (Long) upstreamStart);
+		}
+	}
 }
@@ -7,6 +7,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.cristian.zuulserver.tracking.CorrelationIdGenerator;
+
 /**
  * This filter will inspect all incoming requests to the gateway 
  * and determine whether there’s an HTTP header called tmx-correlation-id 
@@ -22,6 +24,12 @@ import org.springframework.stereotype.Component;
  * carrying out the user’s request. In this case, your TrackingFilter 
  * class will do nothing.
  * 
+ * The correlation ID is created by the configured CorrelationIdGenerator
+ * (see CorrelationIdConfig).
+ * 
+ * The filter also records when the gateway started processing the request,
+ * the ResponseFilter uses it for the end to end latency.
+ * 
  * @author bit5
  */
 @Component
@@ -33,6 +41,9 @@ public class TrackingFilter extends ZuulFilter {
 	@Autowired
 	FilterUtils filterUtils;
 
+	@Autowired
+	CorrelationIdGenerator correlationIdGenerator;
+
 	@Override
 	public String filterType() {
 		return FilterUtils.PRE_FILTER_TYPE;
@@ -56,10 +67,12 @@ public class TrackingFilter extends ZuulFilter {
 	}
 
 	private String generateCorrelationId() {
-		return java.util.UUID.randomUUID().toString();
+		return correlationIdGenerator.generate();
 	}
 
 	public Object run() {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		ctx.set(FilterUtils.START_NANOS, System.nanoTime());
 
 		if (isCorrelationIdPresent()) {
 			logger.debug("tmx-correlation-id found in tracking filter: {}. ", filterUtils.getCorrelationId());
@@ -68,7 +81,6 @@ public class TrackingFilter extends ZuulFilter {
 			logger.debug("tmx-correlation-id generated in tracking filter: {}.", filterUtils.getCorrelationId());
 		}
 
-		RequestContext ctx = RequestContext.getCurrentContext();
 		logger.debug("Processing incoming request for {}.", ctx.getRequest().getRequestURI());
 		return null;
 	}
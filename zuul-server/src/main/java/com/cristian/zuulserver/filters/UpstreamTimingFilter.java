@@ -0,0 +1,40 @@
+package com.cristian.zuulserver.filters;
+
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.stereotype.Component;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+/**
+ * Route filter running right before the HedgingRoutingFilter or the
+ * RibbonRoutingFilter call the service. It records when the upstream call
+ * started, the ResponseFilter uses it for the upstream latency. Requests
+ * answered by the gateway itself (cache hits, rate limited requests) are
+ * skipped.
+ */
+@Component
+public class UpstreamTimingFilter extends ZuulFilter {
+	private static final int FILTER_ORDER = FilterConstants.RIBBON_ROUTING_FILTER_ORDER - 2;
+
+	@Override
+	public String filterType() {
+		return FilterUtils.ROUTE_FILTER_TYPE;
+	}
+
+	@Override
+	public int filterOrder() {
+		return FILTER_ORDER;
+	}
+
+	@Override
+	public boolean shouldFilter() {
+		return RequestContext.getCurrentContext().sendZuulResponse();
+	}
+
+	@Override
+	public Object run() {
+		RequestContext.getCurrentContext().set(FilterUtils.UPSTREAM_START_NANOS, System.nanoTime());
+		return null;
+	}
+}
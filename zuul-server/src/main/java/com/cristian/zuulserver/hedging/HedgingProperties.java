@@ -0,0 +1,142 @@
+package com.cristian.zuulserver.hedging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.cristian.zuulserver.metrics.GatewayLatencyMetrics;
+
+/**
+ * Per route hedging and retry settings of the gateway, keyed by the Zuul
+ * route id (e.g. organizationservice). Only the GET requests of the listed
+ * routes are hedged, except those whose path in the service matches one of
+ * the excludedPaths (Ant patterns) of the route, such as long polls, which
+ * are slow on purpose and would all be sent twice.
+ *
+ * The hedge delay of a route follows the percentile of its upstream latency
+ * (one of the percentiles published by GatewayLatencyMetrics: 0.5, 0.95 or
+ * 0.99; any other value fails the startup), bounded by minDelayMs and
+ * maxDelayMs; maxDelayMs is used until the route has latency data. Hedges
+ * and retries both take from a budget earning budgetRatio of a call per
+ * request, starting at (and holding at most) minBudget calls, so together
+ * they stay a fraction of the traffic. maxConcurrentRequests bounds the
+ * requests of the route being hedged at once, in place of the semaphore of
+ * its Hystrix command (zuul.semaphore.max-semaphores, 100 by default), and
+ * threads bounds the upstream calls in flight for all the hedged routes.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+	private boolean enabled = true;
+	private int threads = 200;
+	private Map<String, Route> routes = new HashMap<>();
+
+	public static class Route {
+		private double percentile = 0.95;
+		private long minDelayMs = 10;
+		private long maxDelayMs = 500;
+		private int maxRetries = 1;
+		private double budgetRatio = 0.1;
+		private int minBudget = 10;
+		private int maxConcurrentRequests = 100;
+		private List<String> excludedPaths = new ArrayList<>();
+
+		public double getPercentile() {
+			return percentile;
+		}
+
+		public void setPercentile(double percentile) {
+			// any other percentile would leave the hedge delay at maxDelayMs for good
+			if (Arrays.stream(GatewayLatencyMetrics.PUBLISHED_PERCENTILES).noneMatch(p -> p == percentile)) {
+				throw new IllegalArgumentException("percentile must be one of "
+						+ Arrays.toString(GatewayLatencyMetrics.PUBLISHED_PERCENTILES) + ", was " + percentile);
+			}
+			this.percentile = percentile;
+		}
+
+		public long getMinDelayMs() {
+			return minDelayMs;
+		}
+
+		public void setMinDelayMs(long minDelayMs) {
+			this.minDelayMs = minDelayMs;
+		}
+
+		public long getMaxDelayMs() {
+			return maxDelayMs;
+		}
+
+		public void setMaxDelayMs(long maxDelayMs) {
+			this.maxDelayMs = maxDelayMs;
+		}
+
+		public int getMaxRetries() {
+			return maxRetries;
+		}
+
+		public void setMaxRetries(int maxRetries) {
+			this.maxRetries = maxRetries;
+		}
+
+		public double getBudgetRatio() {
+			return budgetRatio;
+		}
+
+		public void setBudgetRatio(double budgetRatio) {
+			this.budgetRatio = budgetRatio;
+		}
+
+		public int getMinBudget() {
+			return minBudget;
+		}
+
+		public void setMinBudget(int minBudget) {
+			this.minBudget = minBudget;
+		}
+
+		public int getMaxConcurrentRequests() {
+			return maxConcurrentRequests;
+		}
+
+		public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+			this.maxConcurrentRequests = maxConcurrentRequests;
+		}
+
+		public List<String> getExcludedPaths() {
+			return excludedPaths;
+		}
+
+		public void setExcludedPaths(List<String> excludedPaths) {
+			this.excludedPaths = excludedPaths;
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public Map<String, Route> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(Map<String, Route> routes) {
+		this.routes = routes;
+	}
+}
@@ -0,0 +1,54 @@
+package com.cristian.zuulserver.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget of the extra calls (hedges and retries) of a route. Every request
+ * deposits ratio of a call and every extra call withdraws a whole one, so
+ * over time the extra calls are at most ratio of the requests, whatever the
+ * failure rate. During an outage the budget runs out after a few calls and
+ * the gateway stops multiplying the load on the failing service.
+ *
+ * The balance is kept in thousandths of a call, capped at max calls, and
+ * updated with compare-and-set, so there is no lock on the request path.
+ */
+public class RetryBudget {
+	private static final long SCALE = 1000;
+
+	private final long deposit;
+	private final long max;
+	private final AtomicLong balance;
+
+	public RetryBudget(double ratio, int max) {
+		this.deposit = Math.round(ratio * SCALE);
+		this.max = max * SCALE;
+		this.balance = new AtomicLong(this.max);
+	}
+
+	/** Called once per request. */
+	public void deposit() {
+		long current;
+		do {
+			current = balance.get();
+			if (current >= max) {
+				return;
+			}
+		} while (!balance.compareAndSet(current, Math.min(max, current + deposit)));
+	}
+
+	/** Takes one call from the budget, returns false if there is none left. */
+	public boolean tryWithdraw() {
+		long current;
+		do {
+			current = balance.get();
+			if (current < SCALE) {
+				return false;
+			}
+		} while (!balance.compareAndSet(current, current - SCALE));
+		return true;
+	}
+
+	public double getBalance() {
+		return (double) balance.get() / SCALE;
+	}
+}
@@ -0,0 +1,139 @@
+package com.cristian.zuulserver.hedging;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+
+/**
+ * One call of a hedged request to one instance of the service. The attempts
+ * that lose the race are abandoned: their request is aborted and their
+ * response, whenever it arrives, is closed so the connection goes back to
+ * the pool.
+ *
+ * Like the calls of the Ribbon client, the attempts are recorded in the
+ * ServerStats of their instance (active requests, response time and
+ * connection failures), so the load balancer rules and the Ribbon circuit of
+ * the instance see them. The aborted calls of abandoned attempts say nothing
+ * about the instance and only leave the active requests.
+ */
+public class UpstreamAttempt implements Callable<UpstreamAttempt> {
+	public enum Type {
+		PRIMARY, HEDGE, RETRY
+	}
+
+	private final CloseableHttpClient httpClient;
+	private final HttpGet request;
+	private final Server server;
+	private final ServerStats stats;
+	private final Type type;
+
+	private CloseableHttpResponse response;
+	private Exception failure;
+	private boolean abandoned;
+
+	public UpstreamAttempt(CloseableHttpClient httpClient, HttpGet request, Server server, ServerStats stats,
+			Type type) {
+		this.httpClient = httpClient;
+		this.request = request;
+		this.server = server;
+		this.stats = stats;
+		this.type = type;
+	}
+
+	@Override
+	public UpstreamAttempt call() {
+		long start = System.nanoTime();
+		if (stats != null) {
+			stats.incrementActiveRequestsCount();
+		}
+		CloseableHttpResponse received;
+		try {
+			received = httpClient.execute(request);
+		} catch (IOException e) {
+			failure = e;
+			noteCompletion(start, true);
+			return this;
+		} catch (RuntimeException e) {
+			failure = e;
+			noteCompletion(start, false);
+			return this;
+		}
+		noteCompletion(start, false);
+
+		synchronized (this) {
+			if (abandoned) {
+				closeQuietly(received);
+			} else {
+				response = received;
+			}
+		}
+		return this;
+	}
+
+	public synchronized void abandon() {
+		abandoned = true;
+		request.abort();
+		if (response != null) {
+			closeQuietly(response);
+		}
+	}
+
+	/**
+	 * An attempt failed when the call threw or the service answered with a
+	 * server error; such a request can be retried on another instance.
+	 */
+	public boolean isFailed() {
+		return failure != null || response == null || response.getStatusLine().getStatusCode() >= 500;
+	}
+
+	public CloseableHttpResponse getResponse() {
+		return response;
+	}
+
+	public Exception getFailure() {
+		return failure;
+	}
+
+	public Server getServer() {
+		return server;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	private void noteCompletion(long start, boolean connectionFailure) {
+		if (stats == null) {
+			return;
+		}
+		stats.decrementActiveRequestsCount();
+		synchronized (this) {
+			if (abandoned) {
+				return;
+			}
+		}
+		stats.incrementNumRequests();
+		stats.noteResponseTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		if (connectionFailure) {
+			stats.incrementSuccessiveConnectionFailureCount();
+			stats.addToFailureCount();
+		} else {
+			stats.clearSuccessiveConnectionFailureCount();
+		}
+	}
+
+	private static void closeQuietly(CloseableHttpResponse response) {
+		try {
+			response.close();
+		} catch (IOException e) {
+			// the connection is discarded either way
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.cristian.zuulserver.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Latency of the requests going through the gateway, per route and response
+ * status:
+ *
+ * gateway.requests: end to end, from the TrackingFilter to the
+ * ResponseFilter. gateway.upstream.requests: the call to the service, from
+ * the UpstreamTimingFilter to the ResponseFilter; not recorded for the
+ * requests answered by the gateway itself (cache hits, rate limited).
+ *
+ * The timers keep HdrHistogram based percentiles and publish their
+ * percentile histogram, so the percentiles can be read from
+ * /actuator/metrics and aggregated across instances from
+ * /actuator/prometheus. The timers of a route are created once and kept in
+ * an array indexed by status, so recording a request only reads a map and
+ * an array, and allocates nothing.
+ *
+ * The HedgingRoutingFilter derives its hedge delays from the upstream
+ * percentiles.
+ */
+@Component
+public class GatewayLatencyMetrics {
+	/** Percentiles kept by the timers, the only ones upstreamPercentileNanos can return. */
+	public static final double[] PUBLISHED_PERCENTILES = { 0.5, 0.95, 0.99 };
+
+	private static final int MIN_STATUS = 100;
+	private static final int MAX_STATUS = 599;
+	private static final String NO_ROUTE = "none";
+
+	private final MeterRegistry meterRegistry;
+	private final long maxExpectedMs;
+
+	private final ConcurrentMap<String, AtomicReferenceArray<Timer>> endToEnd = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, AtomicReferenceArray<Timer>> upstream = new ConcurrentHashMap<>();
+
+	@Autowired
+	public GatewayLatencyMetrics(MeterRegistry meterRegistry,
+			@Value("${gateway.metrics.latency.max-expected-ms:30000}") long maxExpectedMs) {
+		this.meterRegistry = meterRegistry;
+		this.maxExpectedMs = maxExpectedMs;
+	}
+
+	public void recordEndToEnd(String route, int status, long nanos) {
+		record(endToEnd, "gateway.requests", route, status, nanos);
+	}
+
+	public void recordUpstream(String route, int status, long nanos) {
+		record(upstream, "gateway.upstream.requests", route, status, nanos);
+	}
+
+	/**
+	 * Returns the given percentile, in nanoseconds, of the upstream latency of
+	 * the successful (200) requests of the route over the last minutes, or -1
+	 * when there is no data or the percentile isn't one of
+	 * PUBLISHED_PERCENTILES.
+	 */
+	public long upstreamPercentileNanos(String route, double percentile) {
+		AtomicReferenceArray<Timer> routeTimers = upstream.get(route);
+		Timer timer = routeTimers == null ? null : routeTimers.get(HttpStatus.OK.value() - MIN_STATUS);
+		if (timer == null || timer.count() == 0) {
+			return -1;
+		}
+		for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+			if (value.percentile() == percentile) {
+				return (long) value.value(TimeUnit.NANOSECONDS);
+			}
+		}
+		return -1;
+	}
+
+	private void record(ConcurrentMap<String, AtomicReferenceArray<Timer>> timers, String name, String route,
+			int status, long nanos) {
+		String routeTag = route == null ? NO_ROUTE : route;
+		int index = Math.min(Math.max(status, MIN_STATUS), MAX_STATUS) - MIN_STATUS;
+
+		AtomicReferenceArray<Timer> routeTimers = timers.get(routeTag);
+		if (routeTimers == null) {
+			routeTimers = timers.computeIfAbsent(routeTag,
+					key -> new AtomicReferenceArray<>(MAX_STATUS - MIN_STATUS + 1));
+		}
+		Timer timer = routeTimers.get(index);
+		if (timer == null) {
+			// racing threads get the same timer back from the registry
+			timer = Timer.builder(name)
+					.tag("route", routeTag)
+					.tag("status", Integer.toString(index + MIN_STATUS))
+					.publishPercentiles(PUBLISHED_PERCENTILES)
+					.publishPercentileHistogram()
+					.maximumExpectedValue(Duration.ofMillis(maxExpectedMs))
+					.register(meterRegistry);
+			routeTimers.set(index, timer);
+		}
+		timer.record(nanos, TimeUnit.NANOSECONDS);
+	}
+}
@@ -0,0 +1,82 @@
+package com.cristian.zuulserver.pool;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Connection pool of the Ribbon client of a service, timing how long the
+ * requests wait for a connection.
+ *
+ * Ribbon sets its own request config on every request, without a
+ * connection request timeout, so a request would wait for a connection
+ * forever; the pool bounds the wait to its acquire timeout instead.
+ */
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+	private final long acquireTimeoutMs;
+	private final Timer acquireTime;
+	private final Counter acquireTimeouts;
+
+	public InstrumentedConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry, long timeToLiveMs,
+			long acquireTimeoutMs, Timer acquireTime, Counter acquireTimeouts) {
+		super(socketFactoryRegistry, null, null, null, timeToLiveMs, TimeUnit.MILLISECONDS);
+		this.acquireTimeoutMs = acquireTimeoutMs;
+		this.acquireTime = acquireTime;
+		this.acquireTimeouts = acquireTimeouts;
+	}
+
+	@Override
+	public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+		ConnectionRequest request = super.requestConnection(route, state);
+		return new ConnectionRequest() {
+
+			@Override
+			public HttpClientConnection get(long timeout, TimeUnit unit)
+					throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+				long wait = timeout;
+				TimeUnit waitUnit = unit;
+				if (acquireTimeoutMs > 0 && (timeout <= 0 || unit.toMillis(timeout) > acquireTimeoutMs)) {
+					wait = acquireTimeoutMs;
+					waitUnit = TimeUnit.MILLISECONDS;
+				}
+
+				long start = System.nanoTime();
+				try {
+					return request.get(wait, waitUnit);
+				} catch (ConnectionPoolTimeoutException e) {
+					acquireTimeouts.increment();
+					throw e;
+				} finally {
+					acquireTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				}
+			}
+
+			@Override
+			public boolean cancel() {
+				return request.cancel();
+			}
+		};
+	}
+
+	public long getAcquireTimeoutMs() {
+		return acquireTimeoutMs;
+	}
+
+	public Timer getAcquireTime() {
+		return acquireTime;
+	}
+
+	public Counter getAcquireTimeouts() {
+		return acquireTimeouts;
+	}
+}
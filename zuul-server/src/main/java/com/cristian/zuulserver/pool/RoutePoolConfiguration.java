@@ -0,0 +1,28 @@
+package com.cristian.zuulserver.pool;
+
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+import com.netflix.client.config.IClientConfig;
+
+/**
+ * Default configuration of every Ribbon client (see the @RibbonClients of
+ * ZuulServerApplication), replacing the shared connection pool defaults of
+ * Ribbon with the pool of the route from RoutePools. The CloseableHttpClient
+ * Ribbon builds on top of it is left as is.
+ *
+ * Not a @Configuration on purpose: it belongs to the child context of each
+ * Ribbon client and must not be picked up by the component scan of the
+ * application.
+ */
+public class RoutePoolConfiguration {
+
+	@Value("${ribbon.client.name}")
+	private String serviceId;
+
+	@Bean
+	public HttpClientConnectionManager httpClientConnectionManager(RoutePools routePools, IClientConfig config) {
+		return routePools.create(serviceId, config);
+	}
+}
@@ -0,0 +1,64 @@
+package com.cristian.zuulserver.pool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Actuator endpoint (/actuator/routepools) with the occupancy of the
+ * upstream connection pool of every route and of each of its instances, and
+ * the time the requests waited for a connection.
+ */
+@Component
+@Endpoint(id = "routepools")
+public class RoutePoolEndpoint {
+
+	@Autowired
+	private RoutePools routePools;
+
+	@ReadOperation
+	public Map<String, Object> pools() {
+		Map<String, Object> pools = new TreeMap<>();
+		for (Map.Entry<String, InstrumentedConnectionManager> pool : routePools.getPools().entrySet()) {
+			InstrumentedConnectionManager manager = pool.getValue();
+			Map<String, Object> stats = stats(manager.getTotalStats());
+			stats.put("maxPerInstance", manager.getDefaultMaxPerRoute());
+			stats.put("acquireTimeoutMs", manager.getAcquireTimeoutMs());
+
+			Timer acquire = manager.getAcquireTime();
+			Map<String, Object> acquireStats = new LinkedHashMap<>();
+			acquireStats.put("count", acquire.count());
+			acquireStats.put("meanMs", acquire.mean(TimeUnit.MILLISECONDS));
+			acquireStats.put("maxMs", acquire.max(TimeUnit.MILLISECONDS));
+			acquireStats.put("timeouts", (long) manager.getAcquireTimeouts().count());
+			stats.put("acquire", acquireStats);
+
+			Map<String, Object> instances = new TreeMap<>();
+			for (HttpRoute route : manager.getRoutes()) {
+				instances.put(route.getTargetHost().toHostString(), stats(manager.getStats(route)));
+			}
+			stats.put("instances", instances);
+			pools.put(pool.getKey(), stats);
+		}
+		return pools;
+	}
+
+	private static Map<String, Object> stats(PoolStats poolStats) {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("max", poolStats.getMax());
+		stats.put("leased", poolStats.getLeased());
+		stats.put("available", poolStats.getAvailable());
+		stats.put("pending", poolStats.getPending());
+		return stats;
+	}
+}
@@ -0,0 +1,140 @@
+package com.cristian.zuulserver.pool;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * The pool settings of the Zuul routes, bound from zuul.routes.*.pool next
+ * to the path of the route (Zuul itself ignores the pool key).
+ *
+ * The pool belongs to the Ribbon client of the service of the route, so
+ * every service gets its own connections: a slow service can only exhaust
+ * its own pool. A setting left out keeps the value of the Ribbon client
+ * (ribbon.MaxTotalConnections, ribbon.ReadTimeout...), a timeout of 0 keeps
+ * the Ribbon one. The connect and socket timeouts replace the ConnectTimeout
+ * and ReadTimeout of the Ribbon client, so the Hystrix timeout Zuul derives
+ * from them follows.
+ */
+@Component
+@ConfigurationProperties(prefix = "zuul")
+public class RoutePoolProperties {
+	private Map<String, Route> routes = new HashMap<>();
+
+	public static class Route {
+		private String serviceId;
+		private Pool pool;
+
+		public String getServiceId() {
+			return serviceId;
+		}
+
+		public void setServiceId(String serviceId) {
+			this.serviceId = serviceId;
+		}
+
+		public Pool getPool() {
+			return pool;
+		}
+
+		public void setPool(Pool pool) {
+			this.pool = pool;
+		}
+	}
+
+	public static class Pool {
+		private Integer maxConnections;
+		private Integer maxPerInstance;
+		private long idleTimeoutMs = 30000;
+		private long timeToLiveMs = -1;
+		private int connectTimeoutMs;
+		private int socketTimeoutMs;
+		private long acquireTimeoutMs;
+
+		public Integer getMaxConnections() {
+			return maxConnections;
+		}
+
+		public void setMaxConnections(Integer maxConnections) {
+			this.maxConnections = maxConnections;
+		}
+
+		public Integer getMaxPerInstance() {
+			return maxPerInstance;
+		}
+
+		public void setMaxPerInstance(Integer maxPerInstance) {
+			this.maxPerInstance = maxPerInstance;
+		}
+
+		public long getIdleTimeoutMs() {
+			return idleTimeoutMs;
+		}
+
+		public void setIdleTimeoutMs(long idleTimeoutMs) {
+			this.idleTimeoutMs = idleTimeoutMs;
+		}
+
+		public long getTimeToLiveMs() {
+			return timeToLiveMs;
+		}
+
+		public void setTimeToLiveMs(long timeToLiveMs) {
+			this.timeToLiveMs = timeToLiveMs;
+		}
+
+		public int getConnectTimeoutMs() {
+			return connectTimeoutMs;
+		}
+
+		public void setConnectTimeoutMs(int connectTimeoutMs) {
+			this.connectTimeoutMs = connectTimeoutMs;
+		}
+
+		public int getSocketTimeoutMs() {
+			return socketTimeoutMs;
+		}
+
+		public void setSocketTimeoutMs(int socketTimeoutMs) {
+			this.socketTimeoutMs = socketTimeoutMs;
+		}
+
+		public long getAcquireTimeoutMs() {
+			return acquireTimeoutMs;
+		}
+
+		public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+			this.acquireTimeoutMs = acquireTimeoutMs;
+		}
+	}
+
+	public Map<String, Route> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(Map<String, Route> routes) {
+		this.routes = routes;
+	}
+
+	/**
+	 * Returns the id of the route targeting the service, or the service id
+	 * when no route has it.
+	 */
+	public String routeOf(String serviceId) {
+		for (Map.Entry<String, Route> route : routes.entrySet()) {
+			String routeServiceId = route.getValue().getServiceId();
+			if (serviceId.equals(routeServiceId != null ? routeServiceId : route.getKey())) {
+				return route.getKey();
+			}
+		}
+		return serviceId;
+	}
+
+	/** Returns the pool settings of the service, or null. */
+	public Pool poolOf(String serviceId) {
+		Route route = routes.get(routeOf(serviceId));
+		return route == null ? null : route.getPool();
+	}
+}
@@ -0,0 +1,147 @@
+package com.cristian.zuulserver.pool;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.ribbon.RibbonProperties;
+import org.springframework.stereotype.Component;
+
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/**
+ * Creates and keeps the connection pools of the Ribbon clients (see
+ * RoutePoolConfiguration), one per service, sized from zuul.routes.*.pool.
+ *
+ * Expired connections and connections idle for longer than the idle timeout
+ * of their pool are closed every gateway.pools.eviction-interval-ms. For
+ * every pool the occupancy is published with the
+ * httpcomponents.httpclient.pool metrics, the wait for a connection as the
+ * gateway.upstream.pool.acquire timer and the waits that timed out as
+ * gateway.upstream.pool.acquire.timeouts, all tagged with the route. The
+ * routepools actuator endpoint shows the same per instance.
+ */
+@Component
+public class RoutePools {
+	private static final Logger logger = LoggerFactory.getLogger(RoutePools.class);
+
+	@Autowired
+	private RoutePoolProperties properties;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${gateway.pools.eviction-interval-ms:5000}")
+	private long evictionIntervalMs;
+
+	private final Map<String, InstrumentedConnectionManager> pools = new ConcurrentHashMap<>();
+	private final Map<String, Long> idleTimeouts = new ConcurrentHashMap<>();
+	private ScheduledExecutorService evictor;
+
+	@PostConstruct
+	public void init() {
+		evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "route-pool-evictor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		evictor.scheduleWithFixedDelay(this::evict, evictionIntervalMs, evictionIntervalMs, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		evictor.shutdownNow();
+	}
+
+	/**
+	 * Creates the pool of the Ribbon client of the service. The connect and
+	 * socket timeouts of the pool, if any, are set on the client config.
+	 */
+	public InstrumentedConnectionManager create(String serviceId, IClientConfig config) {
+		String route = properties.routeOf(serviceId);
+		RoutePoolProperties.Pool pool = properties.poolOf(serviceId);
+		if (pool == null) {
+			pool = new RoutePoolProperties.Pool();
+		}
+		if (pool.getConnectTimeoutMs() > 0) {
+			config.set(CommonClientConfigKey.ConnectTimeout, pool.getConnectTimeoutMs());
+		}
+		if (pool.getSocketTimeoutMs() > 0) {
+			config.set(CommonClientConfigKey.ReadTimeout, pool.getSocketTimeoutMs());
+		}
+
+		RibbonProperties ribbon = RibbonProperties.from(config);
+		int maxConnections = pool.getMaxConnections() != null ? pool.getMaxConnections()
+				: ribbon.maxTotalConnections();
+		int maxPerInstance = pool.getMaxPerInstance() != null ? pool.getMaxPerInstance()
+				: ribbon.maxConnectionsPerHost();
+
+		Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+				.register("http", PlainConnectionSocketFactory.getSocketFactory())
+				.register("https", SSLConnectionSocketFactory.getSocketFactory())
+				.build();
+		Timer acquireTime = Timer.builder("gateway.upstream.pool.acquire")
+				.description("Wait for a connection of the upstream pool")
+				.tag("route", route)
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.publishPercentileHistogram()
+				.maximumExpectedValue(Duration.ofSeconds(10))
+				.register(meterRegistry);
+		Counter acquireTimeouts = Counter.builder("gateway.upstream.pool.acquire.timeouts")
+				.description("Requests that gave up waiting for a connection of the upstream pool")
+				.tag("route", route)
+				.register(meterRegistry);
+
+		InstrumentedConnectionManager manager = new InstrumentedConnectionManager(socketFactories,
+				pool.getTimeToLiveMs(), pool.getAcquireTimeoutMs(), acquireTime, acquireTimeouts);
+		manager.setMaxTotal(maxConnections);
+		manager.setDefaultMaxPerRoute(maxPerInstance);
+		new PoolingHttpClientConnectionManagerMetricsBinder(manager, route).bindTo(meterRegistry);
+
+		pools.put(route, manager);
+		idleTimeouts.put(route, pool.getIdleTimeoutMs());
+		logger.debug("Pool of route {}: {} connections, {} per instance, acquire timeout {}ms", route,
+				maxConnections, maxPerInstance, pool.getAcquireTimeoutMs());
+		return manager;
+	}
+
+	/** The pools by route id. */
+	public Map<String, InstrumentedConnectionManager> getPools() {
+		return pools;
+	}
+
+	private void evict() {
+		for (Map.Entry<String, InstrumentedConnectionManager> pool : pools.entrySet()) {
+			try {
+				pool.getValue().closeExpiredConnections();
+				long idleTimeoutMs = idleTimeouts.get(pool.getKey());
+				if (idleTimeoutMs > 0) {
+					pool.getValue().closeIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS);
+				}
+			} catch (RuntimeException e) {
+				logger.warn("Could not evict the connections of route {}", pool.getKey(), e);
+			}
+		}
+	}
+}
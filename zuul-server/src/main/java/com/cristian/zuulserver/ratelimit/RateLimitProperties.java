@@ -0,0 +1,66 @@
+package com.cristian.zuulserver.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per route rate limits of the gateway, keyed by the Zuul route id (e.g.
+ * licensingservice). Every organization (tmx-org-id) gets its own bucket on
+ * each listed route, refilled at ratePerSecond and holding at most burst
+ * requests. Routes that aren't listed are not limited.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+	private boolean enabled = true;
+	private long maxBuckets = 100_000;
+	private Map<String, Limit> routes = new HashMap<>();
+
+	public static class Limit {
+		private double ratePerSecond = 100;
+		private int burst = 100;
+
+		public double getRatePerSecond() {
+			return ratePerSecond;
+		}
+
+		public void setRatePerSecond(double ratePerSecond) {
+			this.ratePerSecond = ratePerSecond;
+		}
+
+		public int getBurst() {
+			return burst;
+		}
+
+		public void setBurst(int burst) {
+			this.burst = burst;
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getMaxBuckets() {
+		return maxBuckets;
+	}
+
+	public void setMaxBuckets(long maxBuckets) {
+		this.maxBuckets = maxBuckets;
+	}
+
+	public Map<String, Limit> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(Map<String, Limit> routes) {
+		this.routes = routes;
+	}
+}
@@ -0,0 +1,48 @@
+package com.cristian.zuulserver.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keeps one TokenBucket per route and organization. The buckets live in a
+ * bounded Caffeine cache and are dropped after a minute without requests,
+ * by then they are full again anyway.
+ */
+@Component
+public class RateLimiter {
+
+	@Autowired
+	private RateLimitProperties properties;
+
+	private Cache<String, TokenBucket> buckets;
+
+	@PostConstruct
+	public void init() {
+		buckets = Caffeine.newBuilder()
+				.maximumSize(properties.getMaxBuckets())
+				.expireAfterAccess(1, TimeUnit.MINUTES)
+				.build();
+	}
+
+	public RateLimitProperties.Limit limitOf(String route) {
+		return route == null ? null : properties.getRoutes().get(route);
+	}
+
+	/**
+	 * Returns 0 when the request of the organization on the route is allowed,
+	 * otherwise the nanoseconds until it would be.
+	 */
+	public long tryAcquire(String route, RateLimitProperties.Limit limit, String organizationId) {
+		long now = System.nanoTime();
+		TokenBucket bucket = buckets.get(route + '|' + organizationId,
+				key -> new TokenBucket(limit.getRatePerSecond(), limit.getBurst(), now));
+		return bucket.tryAcquire(now);
+	}
+}
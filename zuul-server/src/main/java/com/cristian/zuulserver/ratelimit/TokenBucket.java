@@ -0,0 +1,46 @@
+package com.cristian.zuulserver.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as a generic cell rate algorithm
+ * (GCRA): instead of a token count the bucket keeps a single timestamp, the
+ * theoretical arrival time of the next request, and a request is allowed
+ * while that time isn't more than the burst ahead of now. Taking a token is
+ * one compare-and-set on an AtomicLong, there are no locks and no refill
+ * thread.
+ */
+public class TokenBucket {
+	private final long emissionIntervalNanos;
+	private final long toleranceNanos;
+	private final AtomicLong theoreticalArrival;
+
+	/**
+	 * @param ratePerSecond sustained requests per second
+	 * @param burst         requests that can be sent at once, at least 1
+	 * @param nowNanos      current System.nanoTime()
+	 */
+	public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+		this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+		this.toleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1);
+		this.theoreticalArrival = new AtomicLong(nowNanos);
+	}
+
+	/**
+	 * Takes a token. Returns 0 when the request is allowed, otherwise the
+	 * nanoseconds to wait before a token is available.
+	 */
+	public long tryAcquire(long nowNanos) {
+		while (true) {
+			long tat = theoreticalArrival.get();
+			long start = tat - nowNanos > 0 ? tat : nowNanos;
+			long wait = start - nowNanos - toleranceNanos;
+			if (wait > 0) {
+				return wait;
+			}
+			if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+				return 0;
+			}
+		}
+	}
+}
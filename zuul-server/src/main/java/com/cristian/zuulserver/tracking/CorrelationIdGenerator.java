@@ -0,0 +1,11 @@
+package com.cristian.zuulserver.tracking;
+
+/**
+ * Generates the tmx-correlation-id the TrackingFilter sets on requests that
+ * arrive without one. Implementations are called for every such request, on
+ * the request thread, so they have to be thread safe and must not block.
+ */
+public interface CorrelationIdGenerator {
+
+	String generate();
+}
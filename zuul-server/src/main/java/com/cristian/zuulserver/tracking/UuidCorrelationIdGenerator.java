@@ -0,0 +1,15 @@
+package com.cristian.zuulserver.tracking;
+
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUIDs. UUID.randomUUID() draws from a single shared
+ * SecureRandom, so concurrent requests contend on it at high request rates.
+ */
+public class UuidCorrelationIdGenerator implements CorrelationIdGenerator {
+
+	@Override
+	public String generate() {
+		return UUID.randomUUID().toString();
+	}
+}
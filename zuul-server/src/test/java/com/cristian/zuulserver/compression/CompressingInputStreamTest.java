@@ -0,0 +1,67 @@
+package com.cristian.zuulserver.compression;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+
+class CompressingInputStreamTest {
+
+	private static byte[] body() {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < 2000; i++) {
+			json.append("{\"licenseId\":\"").append(i).append("\",\"productName\":\"CustomerPro\"},");
+		}
+		return json.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static DeflaterPool pool() {
+		CompressionProperties properties = new CompressionProperties();
+		properties.setPoolSize(1);
+		properties.setBufferSize(512);
+		return new DeflaterPool(properties);
+	}
+
+	@Test
+	void gzipRoundTripsWithAPooledDeflater() throws IOException {
+		DeflaterPool pool = pool();
+		byte[] body = body();
+
+		// the second response reuses the deflater released by the first one
+		for (int i = 0; i < 2; i++) {
+			byte[] compressed = readAll(pool.gzip(new ByteArrayInputStream(body)));
+			assertArrayEquals(body, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+		}
+	}
+
+	@Test
+	void deflateRoundTripsAfterAnEarlyClose() throws IOException {
+		DeflaterPool pool = pool();
+		byte[] body = body();
+
+		InputStream abandoned = pool.deflate(new ByteArrayInputStream(body));
+		abandoned.read(new byte[100]);
+		abandoned.close();
+
+		byte[] compressed = readAll(pool.deflate(new ByteArrayInputStream(body)));
+		assertArrayEquals(body, readAll(new InflaterInputStream(new ByteArrayInputStream(compressed))));
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[333];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		in.close();
+		return out.toByteArray();
+	}
+}
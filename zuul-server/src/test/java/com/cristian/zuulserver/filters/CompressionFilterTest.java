@@ -0,0 +1,200 @@
+package com.cristian.zuulserver.filters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cristian.zuulserver.compression.CompressionProperties;
+import com.cristian.zuulserver.compression.DeflaterPool;
+import com.netflix.util.Pair;
+import com.netflix.zuul.context.RequestContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CompressionFilterTest {
+	private static final String URI = "/api/licensing/v1/organizations/42/licenses/";
+	private static final int MIN_RESPONSE_SIZE = 256;
+	private static final String JSON = "application/json;charset=UTF-8";
+
+	private final CompressionProperties properties = new CompressionProperties();
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CompressionFilter filter = new CompressionFilter();
+
+	@BeforeEach
+	void setUp() {
+		properties.setMinResponseSize(MIN_RESPONSE_SIZE);
+		ReflectionTestUtils.setField(filter, "properties", properties);
+		ReflectionTestUtils.setField(filter, "deflaterPool", new DeflaterPool(properties));
+		ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContext.getCurrentContext().unset();
+	}
+
+	@Test
+	void encodingIsNegotiatedWithTheAcceptEncoding() {
+		assertEquals("gzip", CompressionFilter.negotiate("gzip, deflate, br"));
+		assertEquals("gzip", CompressionFilter.negotiate("deflate, GZIP;q=0.5"), "gzip is preferred");
+		assertEquals("deflate", CompressionFilter.negotiate("deflate"));
+		assertEquals("deflate", CompressionFilter.negotiate("gzip;q=0, deflate"));
+		assertNull(CompressionFilter.negotiate("gzip;q=0"));
+		assertNull(CompressionFilter.negotiate("gzip;q=abc"), "an unreadable q is a refusal");
+		assertNull(CompressionFilter.negotiate("*"), "only encodings named explicitly count");
+		assertNull(CompressionFilter.negotiate("identity"));
+		assertNull(CompressionFilter.negotiate(null));
+	}
+
+	@Test
+	void gzippedResponseVariesOnAcceptEncodingAndGetsAWeakEtag() throws IOException {
+		byte[] body = body(4096);
+		respond("gzip, deflate", body, (long) body.length, HttpHeaders.CONTENT_TYPE, JSON, HttpHeaders.ETAG, "\"3\"");
+
+		assertTrue(filter.shouldFilter());
+		filter.run();
+
+		RequestContext ctx = RequestContext.getCurrentContext();
+		assertTrue(ctx.getResponseGZipped(), "the SendResponseFilter sets the Content-Encoding");
+		assertNull(ctx.getOriginContentLength());
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, responseHeader(HttpHeaders.VARY));
+		assertEquals("W/\"3\"", responseHeader(HttpHeaders.ETAG));
+		assertArrayEquals(body, readAll(new GZIPInputStream(ctx.getResponseDataStream())));
+		assertEquals(1.0, meterRegistry.counter("gateway.compression.responses", "encoding", "gzip").count());
+	}
+
+	@Test
+	void deflatedResponseCarriesItsContentEncoding() throws IOException {
+		byte[] body = body(4096);
+		respond("deflate", body, (long) body.length, HttpHeaders.CONTENT_TYPE, JSON);
+
+		assertTrue(filter.shouldFilter());
+		filter.run();
+
+		RequestContext ctx = RequestContext.getCurrentContext();
+		assertFalse(ctx.getResponseGZipped());
+		assertEquals("deflate", responseHeader(HttpHeaders.CONTENT_ENCODING));
+		assertArrayEquals(body, readAll(new InflaterInputStream(ctx.getResponseDataStream())));
+	}
+
+	@Test
+	void bodyOfUnknownLengthIsPeekedAt() throws IOException {
+		// under the threshold: the bytes read are put back, uncompressed
+		byte[] small = body(MIN_RESPONSE_SIZE - 1);
+		respond("gzip", small, null, HttpHeaders.CONTENT_TYPE, JSON, HttpHeaders.ETAG, "\"3\"");
+		assertTrue(filter.shouldFilter());
+		filter.run();
+		RequestContext ctx = RequestContext.getCurrentContext();
+		assertFalse(ctx.getResponseGZipped());
+		assertNull(responseHeader(HttpHeaders.VARY));
+		assertEquals("\"3\"", responseHeader(HttpHeaders.ETAG));
+		assertArrayEquals(small, readAll(ctx.getResponseDataStream()));
+
+		// over it: the bytes read are compressed along with the rest
+		byte[] big = body(MIN_RESPONSE_SIZE * 10);
+		respond("gzip", big, null, HttpHeaders.CONTENT_TYPE, JSON);
+		assertTrue(filter.shouldFilter());
+		filter.run();
+		ctx = RequestContext.getCurrentContext();
+		assertTrue(ctx.getResponseGZipped());
+		assertArrayEquals(big, readAll(new GZIPInputStream(ctx.getResponseDataStream())));
+	}
+
+	@Test
+	void responsesNotWorthOrNotFitForCompressionAreLeftAlone() {
+		byte[] body = body(4096);
+		long length = body.length;
+
+		respond("gzip", body(MIN_RESPONSE_SIZE - 1), (long) MIN_RESPONSE_SIZE - 1, HttpHeaders.CONTENT_TYPE, JSON);
+		assertFalse(filter.shouldFilter(), "under min-response-size");
+
+		respond("gzip", body, length, HttpHeaders.CONTENT_TYPE, JSON, HttpHeaders.CONTENT_ENCODING, "br");
+		assertFalse(filter.shouldFilter(), "already encoded by the service");
+
+		respond("gzip", body, length, HttpHeaders.CONTENT_TYPE, "image/png");
+		assertFalse(filter.shouldFilter(), "not one of the mime-types");
+
+		respond("gzip", body, length);
+		assertFalse(filter.shouldFilter(), "no Content-Type");
+
+		respond("identity", body, length, HttpHeaders.CONTENT_TYPE, JSON);
+		assertFalse(filter.shouldFilter(), "no accepted encoding");
+
+		respond("gzip", body, length, HttpHeaders.CONTENT_TYPE, JSON);
+		RequestContext.getCurrentContext().setResponseStatusCode(304);
+		assertFalse(filter.shouldFilter(), "no body to compress");
+
+		respond("gzip", body, length, HttpHeaders.CONTENT_TYPE, JSON);
+		((MockHttpServletRequest) RequestContext.getCurrentContext().getRequest()).setMethod("HEAD");
+		assertFalse(filter.shouldFilter(), "HEAD");
+
+		properties.setEnabled(false);
+		respond("gzip", body, length, HttpHeaders.CONTENT_TYPE, JSON);
+		assertFalse(filter.shouldFilter(), "disabled");
+	}
+
+	/** Sets up a new request accepting the given encodings, answered with the body and headers. */
+	private static void respond(String acceptEncoding, byte[] body, Long contentLength, String... headers) {
+		RequestContext.getCurrentContext().unset();
+		RequestContext ctx = RequestContext.getCurrentContext();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", URI);
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		ctx.setRequest(request);
+		ctx.setResponse(new MockHttpServletResponse());
+		for (int i = 0; i < headers.length; i += 2) {
+			ctx.addZuulResponseHeader(headers[i], headers[i + 1]);
+		}
+		ctx.setResponseStatusCode(200);
+		// set by the routing filter from the Content-Encoding of the service, true until then
+		ctx.setResponseGZipped(false);
+		ctx.setOriginContentLength(contentLength);
+		ctx.setResponseDataStream(new ByteArrayInputStream(body));
+	}
+
+	private static String responseHeader(String name) {
+		for (Pair<String, String> header : RequestContext.getCurrentContext().getZuulResponseHeaders()) {
+			if (header.first().equalsIgnoreCase(name)) {
+				return header.second();
+			}
+		}
+		return null;
+	}
+
+	private static byte[] body(int size) {
+		byte[] pattern = "{\"productName\":\"CustomerPro\"},".getBytes(StandardCharsets.UTF_8);
+		byte[] body = new byte[size];
+		for (int i = 0; i < size; i++) {
+			body[i] = pattern[i % pattern.length];
+		}
+		return body;
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[333];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,222 @@
+package com.cristian.zuulserver.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.ribbon.DefaultServerIntrospector;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.netflix.ribbon.apache.RibbonLoadBalancingHttpClient;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import com.cristian.zuulserver.hedging.HedgingProperties;
+import com.cristian.zuulserver.metrics.GatewayLatencyMetrics;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+import com.netflix.zuul.context.RequestContext;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class HedgingRoutingFilterTest {
+	private static final String ROUTE = "organizationservice";
+
+	private final Stub first = new Stub("first");
+	private final Stub second = new Stub("second");
+	private final HedgingProperties.Route settings = new HedgingProperties.Route();
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+	private final HedgingRoutingFilter filter = new HedgingRoutingFilter();
+	private BaseLoadBalancer loadBalancer;
+
+	/** Instance of the service answering after delayMs with the given status and its name as body. */
+	private static class Stub implements Closeable {
+		final String name;
+		final HttpServer server;
+		volatile long delayMs;
+		volatile int status = 200;
+
+		Stub(String name) {
+			this.name = name;
+			try {
+				server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			server.createContext("/", exchange -> {
+				try {
+					Thread.sleep(delayMs);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				byte[] body = name.getBytes(StandardCharsets.UTF_8);
+				exchange.sendResponseHeaders(status, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			});
+			server.setExecutor(null);
+			server.start();
+		}
+
+		Server server() {
+			return new Server("localhost", server.getAddress().getPort());
+		}
+
+		@Override
+		public void close() {
+			server.stop(0);
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		Server primary = first.server();
+		loadBalancer = new BaseLoadBalancer() {
+			@Override
+			public Server chooseServer(Object key) {
+				return primary;
+			}
+		};
+		loadBalancer.addServers(Arrays.asList(primary, second.server()));
+
+		CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(pool).build();
+		IClientConfig config = DefaultClientConfigImpl.getClientConfigWithDefaultValues(ROUTE);
+		SpringClientFactory clientFactory = mock(SpringClientFactory.class);
+		when(clientFactory.getLoadBalancer(ROUTE)).thenReturn(loadBalancer);
+		when(clientFactory.getClientConfig(ROUTE)).thenReturn(config);
+		when(clientFactory.getClient(eq(ROUTE), eq(RibbonLoadBalancingHttpClient.class)))
+				.thenReturn(new RibbonLoadBalancingHttpClient(httpClient, config, new DefaultServerIntrospector()));
+
+		HedgingProperties properties = new HedgingProperties();
+		properties.setThreads(4);
+		properties.setRoutes(Collections.singletonMap(ROUTE, settings));
+		ReflectionTestUtils.setField(filter, "properties", properties);
+		ReflectionTestUtils.setField(filter, "clientFactory", clientFactory);
+		ReflectionTestUtils.setField(filter, "helper", new ProxyRequestHelper(new ZuulProperties()));
+		ReflectionTestUtils.setField(filter, "latencyMetrics", new GatewayLatencyMetrics(meterRegistry, 30000));
+		ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+		filter.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContext.getCurrentContext().unset();
+		filter.shutdown();
+		first.close();
+		second.close();
+		pool.shutdown();
+	}
+
+	@Test
+	void aHedgeAnsweringFirstWinsAndTheLoserIsClosed() throws Exception {
+		settings.setMinDelayMs(50);
+		settings.setMaxDelayMs(50);
+		first.delayMs = 2000;
+
+		RequestContext ctx = route();
+
+		assertEquals(1, pool.getTotalStats().getLeased(), "only the winner holds a connection");
+		assertEquals(200, ctx.getResponseStatusCode());
+		assertEquals("second", body(ctx));
+		assertEquals(1.0, meterRegistry.counter("gateway.upstream.hedge.wins", "route", ROUTE).count());
+		((Closeable) ctx.get("zuulResponse")).close();
+		assertEquals(0, pool.getTotalStats().getLeased());
+
+		ServerStats loser = stats(first);
+		ServerStats winner = stats(second);
+		awaitNoActiveRequests(loser);
+		assertEquals(0, loser.getTotalRequestsCount(), "the aborted call says nothing about the instance");
+		assertEquals(0, loser.getSuccessiveConnectionFailureCount());
+		assertEquals(1, winner.getTotalRequestsCount());
+		assertEquals(0, winner.getActiveRequestsCount());
+	}
+
+	@Test
+	void aServerErrorIsRetriedOnAnotherInstance() throws Exception {
+		settings.setMinDelayMs(5000);
+		settings.setMaxDelayMs(5000);
+		first.status = 503;
+
+		RequestContext ctx = route();
+
+		assertEquals(1, pool.getTotalStats().getLeased(), "the response of the failed call is closed");
+		assertEquals(200, ctx.getResponseStatusCode());
+		assertEquals("second", body(ctx));
+		assertEquals(1.0, meterRegistry.counter("gateway.upstream.attempts", "route", ROUTE, "type", "retry").count());
+		assertEquals(0.0, meterRegistry.counter("gateway.upstream.attempts", "route", ROUTE, "type", "hedge").count());
+		((Closeable) ctx.get("zuulResponse")).close();
+		assertEquals(1, stats(first).getTotalRequestsCount());
+		assertEquals(1, stats(second).getTotalRequestsCount());
+	}
+
+	@Test
+	void theLongPollOfTheChangeFeedIsNotHedged() {
+		settings.setExcludedPaths(Collections.singletonList("/v1/organizations/changes"));
+
+		request("/v1/organizations/changes");
+		assertFalse(filter.shouldFilter());
+		request("/v1/organizations/42");
+		assertTrue(filter.shouldFilter());
+	}
+
+	private RequestContext route() throws Exception {
+		RequestContext ctx = request("/v1/organizations/42");
+		filter.run();
+		assertFalse(ctx.sendZuulResponse(), "the RibbonRoutingFilter must not call the service again");
+		return ctx;
+	}
+
+	private static RequestContext request(String path) {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		ctx.setRequest(new MockHttpServletRequest("GET", "/api/organization" + path));
+		ctx.setResponse(new MockHttpServletResponse());
+		ctx.set(FilterConstants.SERVICE_ID_KEY, ROUTE);
+		ctx.set(FilterConstants.PROXY_KEY, ROUTE);
+		ctx.set(FilterConstants.REQUEST_URI_KEY, path);
+		return ctx;
+	}
+
+	private ServerStats stats(Stub stub) {
+		return loadBalancer.getLoadBalancerStats().getSingleServerStat(stub.server());
+	}
+
+	private static String body(RequestContext ctx) throws IOException {
+		return StreamUtils.copyToString(ctx.getResponseDataStream(), StandardCharsets.UTF_8);
+	}
+
+	private static void awaitNoActiveRequests(ServerStats stats) throws InterruptedException {
+		// the aborted call leaves its thread a little after the request is answered
+		for (int i = 0; i < 100 && stats.getActiveRequestsCount() > 0; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, stats.getActiveRequestsCount());
+	}
+}
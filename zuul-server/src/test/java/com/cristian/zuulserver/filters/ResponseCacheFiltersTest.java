@@ -0,0 +1,204 @@
+package com.cristian.zuulserver.filters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cristian.zuulserver.cache.CachedResponse;
+import com.cristian.zuulserver.cache.ResponseCache;
+import com.cristian.zuulserver.cache.ResponseCacheProperties;
+import com.netflix.zuul.context.RequestContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ResponseCacheFiltersTest {
+	private static final String ROUTE = "organizationservice";
+	private static final String URI = "/api/organization/v1/organizations/442adb6e-fa58-47f3-9ca2-ed1fecdfe86c";
+	private static final byte[] BODY = "{\"name\":\"HR-PowerSuite\"}".getBytes(StandardCharsets.UTF_8);
+
+	private final ResponseCacheProperties properties = new ResponseCacheProperties();
+	private final ResponseCache responseCache = new ResponseCache();
+	private final ResponseCacheLookupFilter lookupFilter = new ResponseCacheLookupFilter();
+	private final ResponseCacheStoreFilter storeFilter = new ResponseCacheStoreFilter();
+
+	@BeforeEach
+	void setUp() {
+		properties.setRoutes(Collections.singletonMap(ROUTE, 30L));
+		ReflectionTestUtils.setField(responseCache, "properties", properties);
+		ReflectionTestUtils.setField(responseCache, "meterRegistry", new SimpleMeterRegistry());
+		responseCache.init();
+
+		lookupFilter.filterUtils = new FilterUtils();
+		ReflectionTestUtils.setField(lookupFilter, "responseCache", responseCache);
+		ReflectionTestUtils.setField(lookupFilter, "properties", properties);
+		ReflectionTestUtils.setField(storeFilter, "responseCache", responseCache);
+		ReflectionTestUtils.setField(storeFilter, "properties", properties);
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContext.getCurrentContext().unset();
+	}
+
+	@Test
+	void responsesAreNeverServedToAnotherTenant() {
+		assertFalse(lookup("org-a", null));
+		store(BODY, null);
+
+		assertFalse(lookup("org-b", null), "another tenant misses");
+		assertTrue(lookup("org-a", null), "the same tenant hits");
+		assertArrayEquals(BODY, readAll(RequestContext.getCurrentContext().getResponseDataStream()));
+	}
+
+	@Test
+	void cacheControlOfTheServiceIsHonored() {
+		for (String cacheControl : Arrays.asList("no-store", "no-cache", "private, max-age=60", "max-age=0")) {
+			responseCache.invalidateAll();
+			lookup("org-a", null);
+			store(BODY, null, HttpHeaders.CACHE_CONTROL, cacheControl);
+			assertEquals(0, responseCache.size(), cacheControl);
+		}
+
+		lookup("org-a", null);
+		store(BODY, null, HttpHeaders.CACHE_CONTROL, "public, max-age=5");
+		CachedResponse cached = responseCache.get(cacheKey());
+		assertNotNull(cached);
+		assertEquals(TimeUnit.SECONDS.toNanos(5), cached.getTtlNanos(), "max-age shortens the route ttl");
+	}
+
+	@Test
+	void matchingIfNoneMatchIsAnsweredWithA304() {
+		lookup("org-a", null);
+		store(BODY, null, HttpHeaders.ETAG, "\"3\"");
+
+		assertTrue(lookup("org-a", "\"3\""));
+		RequestContext ctx = RequestContext.getCurrentContext();
+		assertEquals(304, ctx.getResponseStatusCode());
+		assertFalse(ctx.sendZuulResponse());
+		assertNull(ctx.getResponseDataStream());
+	}
+
+	@Test
+	void laterChangesToTheResponseHeadersDontReachTheCache() {
+		lookup("org-a", null);
+		store(BODY, null, HttpHeaders.ETAG, "\"3\"");
+		// what the CompressionFilter does to the ETag of a gzipped response
+		RequestContext.getCurrentContext().getZuulResponseHeaders().forEach(header -> {
+			if (header.first().equals(HttpHeaders.ETAG)) {
+				header.setSecond("W/" + header.second());
+			}
+		});
+
+		assertTrue(lookup("org-a", null));
+		assertTrue(RequestContext.getCurrentContext().getZuulResponseHeaders().stream()
+				.anyMatch(header -> header.first().equals(HttpHeaders.ETAG) && header.second().equals("\"3\"")));
+	}
+
+	@Test
+	void responsesOverTheEntryLimitArePassedThrough() throws IOException {
+		properties.setMaxEntryBytes(16);
+		byte[] big = new byte[1000];
+		Arrays.fill(big, (byte) 'x');
+
+		// a known length over the limit: the stream is not even read
+		lookup("org-a", null);
+		InputStream upstream = new ByteArrayInputStream(big);
+		RequestContext ctx = RequestContext.getCurrentContext();
+		ctx.setOriginContentLength((long) big.length);
+		respond(upstream);
+		storeFilter.run();
+		assertSame(upstream, ctx.getResponseDataStream());
+		assertEquals(big.length, upstream.available());
+
+		// a chunked body is given back whole once it gets over the limit
+		lookup("org-a", null);
+		store(big, null);
+		assertEquals(0, responseCache.size());
+		assertArrayEquals(big, readAll(RequestContext.getCurrentContext().getResponseDataStream()));
+	}
+
+	@Test
+	void staleResponsesAreNotCached() {
+		lookup("org-a", null);
+		store(BODY, null, HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+
+		assertEquals(0, responseCache.size());
+	}
+
+	/** Runs the lookup filter on a new request, returns whether it was a hit. */
+	private boolean lookup(String orgId, String ifNoneMatch) {
+		RequestContext.getCurrentContext().unset();
+		RequestContext ctx = RequestContext.getCurrentContext();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", URI);
+		request.addHeader(FilterUtils.ORG_ID, orgId);
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		ctx.setRequest(request);
+		ctx.setResponse(new MockHttpServletResponse());
+		ctx.set(FilterConstants.PROXY_KEY, ROUTE);
+
+		assertTrue(lookupFilter.shouldFilter());
+		lookupFilter.run();
+		return !ctx.sendZuulResponse();
+	}
+
+	/** Plays the response of the service through the store filter. */
+	private void store(byte[] body, Long contentLength, String... headers) {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		for (int i = 0; i < headers.length; i += 2) {
+			ctx.addZuulResponseHeader(headers[i], headers[i + 1]);
+		}
+		ctx.setOriginContentLength(contentLength);
+		respond(new ByteArrayInputStream(body));
+		if (storeFilter.shouldFilter()) {
+			storeFilter.run();
+		}
+	}
+
+	private static void respond(InputStream body) {
+		RequestContext ctx = RequestContext.getCurrentContext();
+		ctx.setResponseStatusCode(200);
+		ctx.setResponseDataStream(body);
+	}
+
+	private static String cacheKey() {
+		return (String) RequestContext.getCurrentContext().get(ResponseCacheLookupFilter.CACHE_KEY);
+	}
+
+	private static byte[] readAll(InputStream in) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[333];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
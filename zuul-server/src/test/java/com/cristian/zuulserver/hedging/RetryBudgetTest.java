@@ -0,0 +1,35 @@
+package com.cristian.zuulserver.hedging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RetryBudgetTest {
+
+	@Test
+	void startsWithTheMinimumAndRunsOut() {
+		RetryBudget budget = new RetryBudget(0.1, 2);
+
+		assertTrue(budget.tryWithdraw());
+		assertTrue(budget.tryWithdraw());
+		assertFalse(budget.tryWithdraw());
+	}
+
+	@Test
+	void extraCallsAreAFractionOfTheRequests() {
+		RetryBudget budget = new RetryBudget(0.1, 2);
+		budget.tryWithdraw();
+		budget.tryWithdraw();
+
+		int allowed = 0;
+		for (int request = 0; request < 1000; request++) {
+			budget.deposit();
+			if (budget.tryWithdraw()) {
+				allowed++;
+			}
+		}
+		assertEquals(100, allowed);
+	}
+}
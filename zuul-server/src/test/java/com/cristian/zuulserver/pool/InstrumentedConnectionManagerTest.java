@@ -0,0 +1,40 @@
+package com.cristian.zuulserver.pool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InstrumentedConnectionManagerTest {
+
+	@Test
+	void waitForAConnectionIsBoundedByTheAcquireTimeout() throws Exception {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		InstrumentedConnectionManager manager = new InstrumentedConnectionManager(
+				RegistryBuilder.<ConnectionSocketFactory>create()
+						.register("http", PlainConnectionSocketFactory.getSocketFactory()).build(),
+				-1, 50, registry.timer("acquire"), registry.counter("timeouts"));
+		manager.setDefaultMaxPerRoute(1);
+		HttpRoute route = new HttpRoute(new HttpHost("localhost", 9090));
+
+		manager.requestConnection(route, null).get(0, TimeUnit.MILLISECONDS);
+		// 0 means no timeout to the pool, the acquire timeout applies instead
+		assertThrows(ConnectionPoolTimeoutException.class,
+				() -> manager.requestConnection(route, null).get(0, TimeUnit.MILLISECONDS));
+
+		assertEquals(2, registry.timer("acquire").count());
+		assertEquals(1.0, registry.counter("timeouts").count());
+		manager.shutdown();
+	}
+}
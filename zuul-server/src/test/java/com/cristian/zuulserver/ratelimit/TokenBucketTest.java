@@ -0,0 +1,42 @@
+package com.cristian.zuulserver.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void allowsTheBurstThenTheRate() {
+		long now = 1_000 * SECOND;
+		TokenBucket bucket = new TokenBucket(10, 5, now);
+
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, bucket.tryAcquire(now));
+		}
+		long wait = bucket.tryAcquire(now);
+		assertEquals(SECOND / 10, wait);
+
+		assertTrue(bucket.tryAcquire(now + wait - 1) > 0);
+		assertEquals(0, bucket.tryAcquire(now + wait));
+	}
+
+	@Test
+	void refillsWhileIdleUpToTheBurst() {
+		long now = 1_000 * SECOND;
+		TokenBucket bucket = new TokenBucket(10, 3, now);
+		for (int i = 0; i < 3; i++) {
+			bucket.tryAcquire(now);
+		}
+
+		long later = now + 60 * SECOND;
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, bucket.tryAcquire(later));
+		}
+		assertTrue(bucket.tryAcquire(later) > 0);
+	}
+}
@@ -0,0 +1,39 @@
+package com.cristian.zuulserver.tracking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class UlidCorrelationIdGeneratorTest {
+	private static final String CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+	@Test
+	void idsAreCrockfordBase32AndStartWithTheTimestamp() {
+		UlidCorrelationIdGenerator generator = new UlidCorrelationIdGenerator();
+
+		long before = System.currentTimeMillis();
+		String id = generator.generate();
+		long after = System.currentTimeMillis();
+
+		assertEquals(26, id.length());
+		assertTrue(id.matches("[" + CROCKFORD + "]{26}"), id);
+
+		long time = 0;
+		for (char c : id.substring(0, 10).toCharArray()) {
+			time = time * 32 + CROCKFORD.indexOf(c);
+		}
+		assertTrue(time >= before && time <= after);
+	}
+
+	@Test
+	void idsSortByCreationTime() throws InterruptedException {
+		UlidCorrelationIdGenerator generator = new UlidCorrelationIdGenerator();
+
+		String first = generator.generate();
+		Thread.sleep(2);
+		String second = generator.generate();
+
+		assertTrue(first.compareTo(second) < 0, first + " " + second);
+	}
+}